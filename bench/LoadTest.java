@@ -0,0 +1,156 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal closed-loop HTTP load generator for the Magister API (JDK only, no build needed).
+ *
+ * Usage:
+ *   java bench/LoadTest.java --base-url http://localhost:8080 \
+ *       --email teacher@example.com --password secret \
+ *       --concurrency 50 --requests 2000 \
+ *       --get /api/teacher/dashboard \
+ *       --post /api/teacher/attendance '{"studentId":2,"groupId":1,"lessonDate":"2026-01-01T09:00:00","status":"PRESENT"}'
+ *
+ * Each --get/--post target is run as its own scenario. Results are printed as one line per
+ * scenario so runs can be appended to bench_output.txt and compared.
+ *
+ * POST bodies may contain {{i}} (the request's index in its scenario) and {{time}} (an ISO
+ * local date-time, one second earlier for each request, counting back from the scenario's
+ * start), so write scenarios do not post the same record thousands of times.
+ */
+public class LoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String[]> scenarios = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--get" -> scenarios.add(new String[]{"GET", args[++i], null});
+                case "--post" -> scenarios.add(new String[]{"POST", args[++i], args[++i]});
+                default -> options.put(args[i].substring(2), args[++i]);
+            }
+        }
+
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "50"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "2000"));
+        String label = options.getOrDefault("label", "run");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 4)))
+                .build();
+
+        String token = options.get("token");
+        if (token == null && options.containsKey("email")) {
+            String body = "{\"email\":\"" + options.get("email") + "\",\"password\":\"" + options.get("password") + "\"}";
+            HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            token = extract(TOKEN, login.body());
+            if (token == null) {
+                throw new IllegalStateException("Login failed: " + login.statusCode() + " " + login.body());
+            }
+        }
+
+        for (String[] scenario : scenarios) {
+            run(client, baseUrl, token, scenario, concurrency, requests, label);
+        }
+        System.exit(0);
+    }
+
+    private static void run(HttpClient client, String baseUrl, String token, String[] scenario,
+                            int concurrency, int requests, String label) throws InterruptedException {
+        String method = scenario[0];
+        String path = scenario[1];
+        String body = scenario[2];
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+
+        LocalDateTime timeBase = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        long started = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            workers.execute(() -> {
+                try {
+                    int index;
+                    while ((index = next.getAndIncrement()) < requests) {
+                        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .timeout(Duration.ofSeconds(30));
+                        if (token != null) {
+                            request.header("Authorization", "Bearer " + token);
+                        }
+                        if ("POST".equals(method)) {
+                            request.header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(expand(body, index, timeBase)));
+                        }
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request.build(),
+                                    HttpResponse.BodyHandlers.ofByteArray());
+                            statuses.computeIfAbsent(response.statusCode(), s -> new AtomicInteger()).incrementAndGet();
+                            if (response.statusCode() >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[index] = System.nanoTime() - t0;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        workers.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%s %s %s concurrency=%d requests=%d rps=%.1f p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms errors=%d statuses=%s%n",
+                label, method, path, concurrency, requests,
+                requests / (elapsed / 1e9),
+                percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                latencies[latencies.length - 1] / 1e6,
+                errors.get(), statuses);
+    }
+
+    private static String expand(String body, int index, LocalDateTime timeBase) {
+        return body.replace("{{i}}", Integer.toString(index))
+                .replace("{{time}}", timeBase.minusSeconds(index).toString());
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static String extract(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
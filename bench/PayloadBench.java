@@ -0,0 +1,147 @@
+import com.example.magister.dto.AttendanceDTO;
+import com.example.magister.dto.CoinDTO;
+import com.example.magister.dto.PaymentDTO;
+import com.example.magister.entity.AttendanceStatus;
+import com.example.magister.entity.PaymentMethod;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Payload size and encode time of representative list responses in JSON, CBOR and Smile,
+ * with and without gzip and the Blackbird module. Needs the compiled app and its
+ * dependencies on the classpath; bench/payload-bench.sh sets that up.
+ *
+ * Usage: java -cp "target/classes:$CP" bench/PayloadBench.java [listSize] [iterations]
+ */
+public class PayloadBench {
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+
+        Map<String, List<?>> payloads = new LinkedHashMap<>();
+        payloads.put("PaymentDTO", payments(size));
+        payloads.put("AttendanceDTO", attendance(size));
+        payloads.put("CoinDTO", coins(size));
+
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", mapper(new JsonFactory(), false));
+        mappers.put("json+blackbird", mapper(new JsonFactory(), true));
+        mappers.put("cbor+blackbird", mapper(new CBORFactory(), true));
+        mappers.put("smile+blackbird", mapper(new SmileFactory(), true));
+
+        System.out.printf("payload bench: %d items per list, %d iterations%n", size, iterations);
+        for (Map.Entry<String, List<?>> payload : payloads.entrySet()) {
+            int jsonBytes = -1;
+            for (Map.Entry<String, ObjectMapper> mapper : mappers.entrySet()) {
+                ObjectMapper objectMapper = mapper.getValue();
+                List<?> list = payload.getValue();
+                for (int i = 0; i < iterations / 4; i++) {
+                    objectMapper.writeValueAsBytes(list);
+                }
+                long started = System.nanoTime();
+                byte[] encoded = null;
+                for (int i = 0; i < iterations; i++) {
+                    encoded = objectMapper.writeValueAsBytes(list);
+                }
+                double micros = (System.nanoTime() - started) / 1e3 / iterations;
+                if (jsonBytes < 0) {
+                    jsonBytes = encoded.length;
+                }
+                System.out.printf("%-14s %-16s bytes=%8d gzip=%7d ratio=%5.2f encode=%8.1fus%n",
+                        payload.getKey(), mapper.getKey(), encoded.length, gzip(encoded).length,
+                        (double) jsonBytes / encoded.length, micros);
+            }
+        }
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory, boolean blackbird) {
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        return mapper;
+    }
+
+    private static byte[] gzip(byte[] data) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<PaymentDTO> payments(int size) {
+        List<PaymentDTO> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            PaymentDTO dto = new PaymentDTO();
+            dto.setId((long) i + 1);
+            dto.setStudentId((long) (i % 40) + 100);
+            dto.setStudentName("Student Number " + (i % 40));
+            dto.setTeacherId(7L);
+            dto.setTeacherName("Dilnoza Karimova");
+            dto.setGroupId((long) (i % 4) + 1);
+            dto.setGroupName("English Intermediate " + (i % 4));
+            dto.setAmount(new BigDecimal("450000.00"));
+            dto.setPaymentDate(LocalDateTime.of(2026, 1, 1, 10, 0).plusDays(i % 300));
+            dto.setMethod(PaymentMethod.values()[i % PaymentMethod.values().length]);
+            dto.setNotes(i % 3 == 0 ? "Monthly fee" : null);
+            dto.setCreatedAt(LocalDateTime.of(2026, 1, 1, 10, 0).plusMinutes(i * 37L));
+            dto.setVersion(0L);
+            list.add(dto);
+        }
+        return list;
+    }
+
+    private static List<AttendanceDTO> attendance(int size) {
+        List<AttendanceDTO> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            AttendanceDTO dto = new AttendanceDTO();
+            dto.setId((long) i + 1);
+            dto.setStudentId((long) (i % 40) + 100);
+            dto.setStudentName("Student Number " + (i % 40));
+            dto.setGroupId(1L);
+            dto.setGroupName("English Intermediate 1");
+            dto.setLessonDate(LocalDateTime.of(2026, 1, 1, 9, 0).plusDays(i / 40));
+            dto.setStatus(i % 7 == 0 ? AttendanceStatus.ABSENT : i % 11 == 0 ? AttendanceStatus.LATE : AttendanceStatus.PRESENT);
+            dto.setMarkedBy("Dilnoza Karimova");
+            dto.setCreatedAt(LocalDateTime.of(2026, 1, 1, 9, 5).plusDays(i / 40));
+            list.add(dto);
+        }
+        return list;
+    }
+
+    private static List<CoinDTO> coins(int size) {
+        List<CoinDTO> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            CoinDTO dto = new CoinDTO();
+            dto.setId((long) i + 1);
+            dto.setStudentId((long) (i % 40) + 100);
+            dto.setStudentName("Student Number " + (i % 40));
+            dto.setGroupId(1L);
+            dto.setGroupName("English Intermediate 1");
+            dto.setTeacherName("Dilnoza Karimova");
+            dto.setAmount(5 + i % 10);
+            dto.setReason("Homework completed");
+            dto.setAwardedDate(LocalDateTime.of(2026, 1, 1, 11, 0).plusHours(i));
+            list.add(dto);
+        }
+        return list;
+    }
+}
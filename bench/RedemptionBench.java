@@ -0,0 +1,222 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fires a burst of concurrent coin redemptions at one limited-stock reward and checks that
+ * nothing was oversold or overspent (JDK only, no build needed).
+ *
+ * Seeds its own data through the API with a head-office admin login: a teacher, a group of
+ * --students students who each earn enough coins for exactly one redemption, and a reward
+ * with --stock units. Then every student sends --redemptions / --students redemptions, all
+ * released at the same moment. Passes when exactly min(stock, students) redemptions
+ * succeeded, no student got more than one, the stock ended at zero (or at what the students
+ * could not afford), nothing failed with a 5xx and the coin ledger check finds no difference.
+ *
+ * Usage (the app must run with app.rate-limit.enabled=false, see bench/redemption-bench.sh):
+ *   java bench/RedemptionBench.java --base-url http://localhost:8080 \
+ *       --email admin@example.com --password secret \
+ *       --students 250 --redemptions 500 --stock 100 --cost 10
+ */
+public class RedemptionBench {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern MISMATCHES = Pattern.compile("\"mismatchCount\"\\s*:\\s*(\\d+)");
+    private static final String PASSWORD = "bench-password";
+
+    private static String baseUrl;
+    private static HttpClient client;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            options.put(args[i].substring(2), args[++i]);
+        }
+        baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        int students = Integer.parseInt(options.getOrDefault("students", "250"));
+        int redemptions = Integer.parseInt(options.getOrDefault("redemptions", "500"));
+        int stock = Integer.parseInt(options.getOrDefault("stock", "100"));
+        int cost = Integer.parseInt(options.getOrDefault("cost", "10"));
+        String label = options.getOrDefault("label", "redemption");
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newFixedThreadPool(Math.max(4, redemptions / 4)))
+                .build();
+
+        // Seed: teacher, group, students with coins for exactly one redemption each, reward
+        String admin = login(options.get("email"), options.get("password"));
+        String teacherEmail = "bench-teacher-" + run + "@example.com";
+        long teacherId = id(send("POST", "/api/admin/users", admin, "{\"email\":\"" + teacherEmail
+                + "\",\"password\":\"" + PASSWORD + "\",\"fullName\":\"Bench Teacher " + run + "\",\"role\":\"TEACHER\"}"));
+        String teacher = login(teacherEmail, PASSWORD);
+        long groupId = id(send("POST", "/api/groups", teacher, "{\"name\":\"Redemption bench " + run
+                + "\",\"teacherId\":" + teacherId + ",\"monthlyFee\":0}"));
+
+        List<Long> studentIds = new ArrayList<>();
+        List<String> studentEmails = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            String email = "bench-student-" + run + "-" + i + "@example.com";
+            studentEmails.add(email);
+            studentIds.add(id(send("POST", "/api/users/students", teacher, "{\"email\":\"" + email
+                    + "\",\"password\":\"" + PASSWORD + "\",\"fullName\":\"Bench Student " + i + "\"}")));
+        }
+        for (int from = 0; from < students; from += 500) {
+            List<Long> batch = studentIds.subList(from, Math.min(students, from + 500));
+            send("POST", "/api/groups/" + groupId + "/enroll", teacher, "{\"studentIds\":" + batch + "}");
+        }
+        int award = cost + cost / 2;
+        for (Long studentId : studentIds) {
+            send("POST", "/api/teacher/coins", teacher, "{\"studentId\":" + studentId + ",\"groupId\":" + groupId
+                    + ",\"amount\":" + award + ",\"reason\":\"redemption bench\"}");
+        }
+        long rewardId = id(send("POST", "/api/admin/rewards", admin, "{\"name\":\"Bench reward " + run
+                + "\",\"cost\":" + cost + ",\"stock\":" + stock + "}"));
+
+        String[] tokens = new String[students];
+        for (int i = 0; i < students; i++) {
+            tokens[i] = login(studentEmails.get(i), PASSWORD);
+        }
+        System.out.printf("seeded teacher=%d group=%d reward=%d students=%d coins-each=%d cost=%d stock=%d%n",
+                teacherId, groupId, rewardId, students, award, cost, stock);
+
+        // Burst: one thread per redemption, all released by the same latch
+        String body = "{\"rewardId\":" + rewardId + ",\"groupId\":" + groupId + "}";
+        long[] latencies = new long[redemptions];
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        AtomicInteger[] wonByStudent = new AtomicInteger[students];
+        Arrays.setAll(wonByStudent, i -> new AtomicInteger());
+        CountDownLatch ready = new CountDownLatch(redemptions);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(redemptions);
+        ExecutorService workers = Executors.newFixedThreadPool(redemptions);
+        for (int r = 0; r < redemptions; r++) {
+            int index = r;
+            int student = r % students;
+            workers.execute(() -> {
+                try {
+                    ready.countDown();
+                    start.await();
+                    long t0 = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/student/redemptions"))
+                                .timeout(Duration.ofSeconds(60))
+                                .header("Authorization", "Bearer " + tokens[student])
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body))
+                                .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    latencies[index] = System.nanoTime() - t0;
+                    statuses.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                    if (status == 201) {
+                        wonByStudent[student].incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        ready.await();
+        long started = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        workers.shutdown();
+
+        // Check: successes, per-student wins, remaining stock and the coin ledger
+        int succeeded = statuses.getOrDefault(201, new AtomicInteger()).get();
+        int serverErrors = statuses.entrySet().stream()
+                .filter(e -> e.getKey() < 0 || e.getKey() >= 500)
+                .mapToInt(e -> e.getValue().get()).sum();
+        long doubleWins = Arrays.stream(wonByStudent).filter(w -> w.get() > 1).count();
+        int expected = Math.min(stock, Math.min(students, redemptions));
+        Integer stockLeft = stockOf(send("GET", "/api/admin/rewards", admin, null), rewardId);
+        Matcher mismatches = MISMATCHES.matcher(send("POST", "/api/admin/coins/ledger/verify", admin, ""));
+        int ledgerMismatches = mismatches.find() ? Integer.parseInt(mismatches.group(1)) : -1;
+        boolean passed = succeeded == expected && doubleWins == 0 && serverErrors == 0
+                && stockLeft != null && stockLeft == stock - expected && ledgerMismatches == 0;
+
+        Arrays.sort(latencies);
+        System.out.printf("%s POST /api/student/redemptions concurrency=%d students=%d stock=%d rps=%.1f "
+                        + "p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms succeeded=%d expected=%d stock-left=%s "
+                        + "double-wins=%d ledger-mismatches=%d statuses=%s %s%n",
+                label, redemptions, students, stock, redemptions / (elapsed / 1e9),
+                percentile(latencies, 50), percentile(latencies, 95), percentile(latencies, 99),
+                latencies[latencies.length - 1] / 1e6, succeeded, expected, stockLeft,
+                doubleWins, ledgerMismatches, statuses, passed ? "PASS" : "FAIL");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static String login(String email, String password) throws Exception {
+        String response = send("POST", "/api/auth/login", null,
+                "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+        String token = extract(TOKEN, response);
+        if (token == null) {
+            throw new IllegalStateException("Login failed for " + email + ": " + response);
+        }
+        return token;
+    }
+
+    private static String send(String method, String path, String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        if ("POST".equals(method)) {
+            request.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException(method + " " + path + " -> " + response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+
+    private static long id(String response) {
+        String id = extract(ID, response);
+        if (id == null) {
+            throw new IllegalStateException("No id in response: " + response);
+        }
+        return Long.parseLong(id);
+    }
+
+    // Stock of one reward in the admin reward list (fields are serialized in RewardDTO order)
+    private static Integer stockOf(String rewards, long rewardId) {
+        Matcher matcher = Pattern.compile("\\{\"id\"\\s*:\\s*" + rewardId + "\\s*,[^}]*\"stock\"\\s*:\\s*(\\d+)")
+                .matcher(rewards);
+        return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static String extract(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
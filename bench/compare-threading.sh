@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+# Runs the same dashboard and attendance load against the app twice: once on the default
+# Tomcat platform-thread pool and once with the "virtual" profile, and appends the results
+# to bench_output.txt.
+#
+# Attendance is marked for a throwaway group and student created per run, each request
+# with its own lesson time, so the benchmark neither piles duplicate marks onto real
+# students nor skews their attendance stats. The student is deleted (with their attendance)
+# and the group completed afterwards.
+#
+# Prerequisites: PostgreSQL reachable with the usual PG* variables, a Java 21 runtime and a
+# teacher account.
+#
+#   mvn -Pvirtual-threads -DskipTests package
+#   EMAIL=teacher@example.com PASSWORD=secret bench/compare-threading.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=${JAR:-target/crm-system-1.0.0.jar}
+PORT=${BENCH_PORT:-18080}
+BASE_URL="http://localhost:${PORT}"
+CONCURRENCY=${CONCURRENCY:-200}
+REQUESTS=${REQUESTS:-5000}
+OUT=${OUT:-bench_output.txt}
+: "${EMAIL:?set EMAIL to a teacher login}" "${PASSWORD:?set PASSWORD}"
+
+wait_for_app() {
+    for _ in $(seq 1 120); do
+        if curl -s -o /dev/null "${BASE_URL}/v3/api-docs"; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "application did not start on ${BASE_URL}" >&2
+    return 1
+}
+
+# api METHOD PATH [BODY] - authenticated call as the teacher, prints the response body
+api() {
+    curl -sf -X "$1" "${BASE_URL}$2" -H "Authorization: Bearer ${TOKEN}" \
+        -H "Content-Type: application/json" ${3:+--data "$3"}
+}
+
+# json_field NAME - first numeric NAME field of the JSON on stdin
+json_field() {
+    grep -o "\"$1\":[0-9]*" | head -1 | cut -d: -f2
+}
+
+run_mode() {
+    local label=$1
+    shift
+    # One user hammers each endpoint here, which the per-user rate limiter would throttle
+    java -Xmx512m -jar "$JAR" --server.port="$PORT" --app.rate-limit.enabled=false "$@" > "/tmp/magister-${label}.log" 2>&1 &
+    local pid=$!
+    wait_for_app
+
+    local login run group_id student_id
+    login=$(curl -sf "${BASE_URL}/api/auth/login" -H "Content-Type: application/json" \
+        --data "{\"email\":\"${EMAIL}\",\"password\":\"${PASSWORD}\"}")
+    TOKEN=$(echo "$login" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+    run="${label}-$(date +%s)"
+    group_id=$(api POST /api/groups \
+        "{\"name\":\"Threading bench ${run}\",\"teacherId\":$(echo "$login" | json_field userId),\"monthlyFee\":0}" | json_field id)
+    student_id=$(api POST /api/users/students \
+        "{\"email\":\"bench-${run}@example.com\",\"password\":\"bench-password\",\"fullName\":\"Threading Bench ${run}\"}" | json_field id)
+    api POST "/api/groups/${group_id}/enroll/${student_id}" > /dev/null
+
+    java bench/LoadTest.java --base-url "$BASE_URL" --email "$EMAIL" --password "$PASSWORD" \
+        --concurrency "$CONCURRENCY" --requests "$REQUESTS" --label "$label" \
+        --get /api/teacher/dashboard \
+        --post /api/teacher/attendance \
+        "{\"studentId\":${student_id},\"groupId\":${group_id},\"lessonDate\":\"{{time}}\",\"status\":\"PRESENT\"}" \
+        | tee -a "$OUT"
+
+    api DELETE "/api/teacher/students/${student_id}" > /dev/null
+    api PUT "/api/groups/${group_id}" '{"status":"COMPLETED"}' > /dev/null
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+echo "# threading comparison $(date -u +%Y-%m-%dT%H:%M:%SZ) concurrency=${CONCURRENCY}" | tee -a "$OUT"
+run_mode platform
+run_mode virtual --spring.profiles.active=virtual
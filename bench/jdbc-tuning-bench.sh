@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Runs the same concurrent dashboard load against the app twice, with the JDBC tuning module
+# off (HikariCP and driver defaults: 10 connections, no statement cache tuning) and on, and
+# appends the results to bench_output.txt.
+#
+# Prerequisites: PostgreSQL reachable with the usual PG* variables and a teacher account with
+# groups and students (the teacher dashboard fans out into several queries per request).
+#
+#   ./mvnw -DskipTests package
+#   EMAIL=teacher@example.com PASSWORD=secret bench/jdbc-tuning-bench.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=${JAR:-target/crm-system-1.0.0.jar}
+PORT=${BENCH_PORT:-18080}
+BASE_URL="http://localhost:${PORT}"
+CONCURRENCY=${CONCURRENCY:-100}
+REQUESTS=${REQUESTS:-5000}
+OUT=${OUT:-bench_output.txt}
+: "${EMAIL:?set EMAIL to a teacher login}" "${PASSWORD:?set PASSWORD}"
+
+wait_for_app() {
+    for _ in $(seq 1 120); do
+        if curl -s -o /dev/null "${BASE_URL}/v3/api-docs"; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "application did not start on ${BASE_URL}" >&2
+    return 1
+}
+
+run_mode() {
+    local label=$1
+    shift
+    # One user sends all requests, which the per-user rate limiter would throttle
+    java -Xmx512m -jar "$JAR" --server.port="$PORT" --app.rate-limit.enabled=false "$@" > "/tmp/magister-${label}.log" 2>&1 &
+    local pid=$!
+    wait_for_app
+
+    # A short warm-up so both runs measure a hot JIT and a filled pool
+    java bench/LoadTest.java --base-url "$BASE_URL" --email "$EMAIL" --password "$PASSWORD" \
+        --concurrency "$CONCURRENCY" --requests 500 --label warmup --get /api/teacher/dashboard > /dev/null
+    java bench/LoadTest.java --base-url "$BASE_URL" --email "$EMAIL" --password "$PASSWORD" \
+        --concurrency "$CONCURRENCY" --requests "$REQUESTS" --label "$label" \
+        --get /api/teacher/dashboard \
+        --get /api/teacher/students \
+        | tee -a "$OUT"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+echo "# jdbc tuning comparison $(date -u +%Y-%m-%dT%H:%M:%SZ) concurrency=${CONCURRENCY} cores=$(nproc)" | tee -a "$OUT"
+run_mode jdbc-defaults --app.jdbc.tuning.enabled=false
+run_mode jdbc-tuned
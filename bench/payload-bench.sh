@@ -0,0 +1,14 @@
+#!/usr/bin/env bash
+# Measures JSON vs CBOR vs Smile payload size and encode time for representative list
+# responses and appends the results to bench_output.txt.
+#
+#   bench/payload-bench.sh [listSize] [iterations]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+OUT=${OUT:-bench_output.txt}
+
+mvn -q -DskipTests compile
+mvn -q dependency:build-classpath -Dmdep.outputFile=target/bench.classpath
+java -cp "target/classes:$(cat target/bench.classpath)" bench/PayloadBench.java "$@" | tee -a "$OUT"
@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# Starts the app, fires 500 concurrent coin redemptions at one reward with limited stock
+# (bench/RedemptionBench.java) and appends the result line, PASS or FAIL, to
+# bench_output.txt. The bench seeds its own teacher, group, students and reward.
+#
+# Prerequisites: PostgreSQL reachable with the usual PG* variables and a head-office admin
+# account (the bench runs the coin ledger check at the end).
+#
+#   ./mvnw -DskipTests package
+#   EMAIL=admin@example.com PASSWORD=secret bench/redemption-bench.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=${JAR:-target/crm-system-1.0.0.jar}
+PORT=${BENCH_PORT:-18080}
+BASE_URL="http://localhost:${PORT}"
+REDEMPTIONS=${REDEMPTIONS:-500}
+STUDENTS=${STUDENTS:-250}
+STOCK=${STOCK:-100}
+OUT=${OUT:-bench_output.txt}
+: "${EMAIL:?set EMAIL to a head-office admin login}" "${PASSWORD:?set PASSWORD}"
+
+wait_for_app() {
+    for _ in $(seq 1 120); do
+        if curl -s -o /dev/null "${BASE_URL}/v3/api-docs"; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "application did not start on ${BASE_URL}" >&2
+    return 1
+}
+
+# Seeding sends hundreds of requests per user, which the per-user rate limiter would throttle
+java -Xmx512m -jar "$JAR" --server.port="$PORT" --app.rate-limit.enabled=false "$@" > /tmp/magister-redemption.log 2>&1 &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true; wait "$pid" 2>/dev/null || true' EXIT
+wait_for_app
+
+echo "# coin redemption burst $(date -u +%Y-%m-%dT%H:%M:%SZ) redemptions=${REDEMPTIONS} students=${STUDENTS} stock=${STOCK} cores=$(nproc)" | tee -a "$OUT"
+java bench/RedemptionBench.java --base-url "$BASE_URL" --email "$EMAIL" --password "$PASSWORD" \
+    --redemptions "$REDEMPTIONS" --students "$STUDENTS" --stock "$STOCK" \
+    | tee -a "$OUT"
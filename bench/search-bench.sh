@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Measures /api/admin/search latency with 100k users and appends the results to
+# bench_output.txt.
+#
+# Seeds BENCH_USERS (default 100000) students named "Bench <first> <last> <n>" with emails
+# search-bench-<n>@example.com into the database from the PG* variables (skipped when they
+# already exist), then runs prefix, word-prefix, email, phone and fuzzy queries against a
+# running app. Remove the seed afterwards with CLEANUP=1. Start the app with
+# RATE_LIMIT_ENABLED=false, otherwise the per-user rate limiter answers most requests with 429.
+#
+#   EMAIL=admin@example.com PASSWORD=secret bench/search-bench.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+BASE_URL=${BASE_URL:-http://localhost:8080}
+BENCH_USERS=${BENCH_USERS:-100000}
+CONCURRENCY=${CONCURRENCY:-20}
+REQUESTS=${REQUESTS:-2000}
+OUT=${OUT:-bench_output.txt}
+: "${EMAIL:?set EMAIL to an admin login}" "${PASSWORD:?set PASSWORD}"
+
+if [ "${CLEANUP:-0}" = "1" ]; then
+    psql -v ON_ERROR_STOP=1 -c "DELETE FROM users WHERE email LIKE 'search-bench-%@example.com'"
+    exit 0
+fi
+
+psql -v ON_ERROR_STOP=1 <<SQL
+INSERT INTO users (email, password, full_name, phone, role, created_at, tenant_id)
+SELECT 'search-bench-' || n || '@example.com', 'x',
+       'Bench ' || (ARRAY['Aziz','Dilnoza','Javlon','Madina','Rustam','Shahlo','Timur','Zarina'])[1 + n % 8]
+           || ' ' || (ARRAY['Karimov','Yusupova','Rahimov','Tosheva','Aliyev','Nazarova'])[1 + n % 6] || ' ' || n,
+       '+99890' || lpad(n::text, 7, '0'), 'STUDENT', now(), 1
+FROM generate_series(1, ${BENCH_USERS}) AS n
+WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = 'search-bench-1@example.com');
+ANALYZE users;
+SQL
+
+echo "# search bench $(date -u +%Y-%m-%dT%H:%M:%SZ) users=${BENCH_USERS} concurrency=${CONCURRENCY}" | tee -a "$OUT"
+java bench/LoadTest.java --base-url "$BASE_URL" --email "$EMAIL" --password "$PASSWORD" \
+    --concurrency "$CONCURRENCY" --requests "$REQUESTS" --label search \
+    --get "/api/admin/search?q=bench%20ma&size=20" \
+    --get "/api/admin/search?q=rahim&size=20" \
+    --get "/api/admin/search?q=search-bench-4242&size=20" \
+    --get "/api/admin/search?q=0004242&size=20" \
+    --get "/api/admin/search?q=nazarov&type=USER&role=STUDENT&page=3&size=20" \
+    | tee -a "$OUT"
@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+# Measures time to first request: from starting the process until POST /api/auth/login
+# answers 200, so it includes the first database round trip. Compares the default jar, the
+# "fast" profile on the same jar, the AOT + CDS build from scripts/fast-startup.sh and, when
+# target/magister exists, the GraalVM native executable. Appends the median of RUNS starts,
+# the RSS after the first request and after LOAD_REQUESTS dashboard requests to
+# bench_output.txt.
+#
+# Prerequisites: PostgreSQL reachable with the usual PG* variables, an admin login, and
+#
+#   scripts/fast-startup.sh build     # also leaves the AOT jar in target/
+#   scripts/fast-startup.sh migrate
+#   ./mvnw -Pnative native:compile    # optional, needs GraalVM
+#   EMAIL=admin@example.com PASSWORD=secret bench/startup-bench.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=${JAR:-target/crm-system-1.0.0.jar}
+PORT=${BENCH_PORT:-18080}
+BASE_URL="http://localhost:${PORT}"
+RUNS=${RUNS:-5}
+LOAD_REQUESTS=${LOAD_REQUESTS:-500}
+OUT=${OUT:-bench_output.txt}
+: "${EMAIL:?set EMAIL to an existing login}" "${PASSWORD:?set PASSWORD}"
+
+now_ms() {
+    date +%s%3N
+}
+
+# Prints "<ms to first 200> <rss kB after it> <rss kB after load>" for one start of the given command
+measure() {
+    local start
+    start=$(now_ms)
+    # The load below comes from one user, which the per-user rate limiter would throttle
+    "$@" --server.port="$PORT" --app.rate-limit.enabled=false > /tmp/magister-startup.log 2>&1 &
+    local pid=$!
+    local status=000
+    for _ in $(seq 1 1200); do
+        status=$(curl -s -o /dev/null -w '%{http_code}' -H 'Content-Type: application/json' \
+            -d "{\"email\":\"${EMAIL}\",\"password\":\"${PASSWORD}\"}" "${BASE_URL}/api/auth/login" || true)
+        if [ "$status" = "200" ]; then
+            break
+        fi
+        sleep 0.05
+    done
+    local elapsed=$(( $(now_ms) - start ))
+    if [ "$status" != "200" ]; then
+        kill "$pid"
+        echo "no successful login (last status ${status}), see /tmp/magister-startup.log" >&2
+        exit 1
+    fi
+    local rss loaded_rss
+    rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+    java bench/LoadTest.java --base-url "$BASE_URL" --email "$EMAIL" --password "$PASSWORD" \
+        --concurrency 20 --requests "$LOAD_REQUESTS" --label warmup --get /api/admin/dashboard > /dev/null
+    loaded_rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed $rss $loaded_rss"
+}
+
+run_mode() {
+    local label=$1
+    shift
+    local times=() rss="" loaded_rss=""
+    for _ in $(seq 1 "$RUNS"); do
+        read -r ms kb loaded_kb < <(measure "$@")
+        times+=("$ms")
+        rss=$kb
+        loaded_rss=$loaded_kb
+    done
+    local median
+    median=$(printf '%s\n' "${times[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")
+    echo "${label} runs=${RUNS} first_request_ms_p50=${median} all_ms=$(IFS=,; echo "${times[*]}") rss_kb=${rss} rss_after_${LOAD_REQUESTS}_requests_kb=${loaded_rss}" | tee -a "$OUT"
+}
+
+echo "# startup comparison $(date -u +%Y-%m-%dT%H:%M:%SZ) java=$(java -version 2>&1 | head -1 | tr -d '\"')" | tee -a "$OUT"
+run_mode default java -Xmx512m -jar "$JAR"
+run_mode fast-profile java -Xmx512m -jar "$JAR" --spring.profiles.active=fast
+run_mode fast-aot-cds scripts/fast-startup.sh run
+if [ -x target/magister ]; then
+    run_mode native target/magister --spring.profiles.active=fast
+fi
@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Builds and runs the fast-startup variant: a Spring AOT-processed jar, unpacked so the JVM
+# can load it from a Class Data Sharing (CDS) archive, started with the "fast" profile.
+#
+#   scripts/fast-startup.sh build      # mvn -Pfast-startup package, unpack, record the CDS archive
+#   scripts/fast-startup.sh migrate    # apply schema changes (ddl-auto=update + data.sql), then exit
+#   scripts/fast-startup.sh run [...]  # start the app; extra arguments go to Spring Boot
+#
+# The CDS archive is recorded by a training run that stops right after the context is
+# refreshed (-Dspring.context.exit=onRefresh); with the fast profile that run needs no
+# database. The archive only matches the JVM and classpath it was recorded with, so run
+# "build" again after a JDK upgrade. Run "migrate" once per release before starting new
+# instances, since the fast profile leaves the schema alone.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=target/crm-system-1.0.0.jar
+APP_DIR=target/fast
+ARCHIVE=$APP_DIR/application.jsa
+MAIN_CLASS=com.example.magister.MagisterApplication
+
+# Classes first, then the libraries in the order recorded in the jar, so the classpath is
+# identical between the training run and every later start
+classpath() {
+    local cp=$APP_DIR/BOOT-INF/classes
+    local lib
+    while IFS= read -r lib; do
+        cp="$cp:$APP_DIR/$lib"
+    done < <(sed -n 's/^- "\(.*\)"$/\1/p' "$APP_DIR/BOOT-INF/classpath.idx")
+    echo "$cp"
+}
+
+case "${1:-}" in
+    build)
+        ./mvnw -B -Pfast-startup -DskipTests package
+        rm -rf "$APP_DIR"
+        mkdir -p "$APP_DIR"
+        (cd "$APP_DIR" && jar xf "../../$JAR")
+        java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+            -cp "$(classpath)" "$MAIN_CLASS" --spring.profiles.active=fast
+        echo "CDS archive: $ARCHIVE"
+        ;;
+    migrate)
+        # Stops after the context refresh, before the web server starts listening
+        java -Dspring.context.exit=onRefresh -jar "$JAR"
+        ;;
+    run)
+        shift
+        exec java ${JAVA_OPTS:--Xmx512m} -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true \
+            -cp "$(classpath)" "$MAIN_CLASS" --spring.profiles.active=fast "$@"
+        ;;
+    *)
+        echo "usage: $0 build|migrate|run [spring-boot-args...]" >&2
+        exit 1
+        ;;
+esac
@@ -0,0 +1,45 @@
+package com.example.magister.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary response formats for bandwidth-constrained clients.
+ *
+ * Every /api endpoint can answer in CBOR (Accept: application/cbor) or Smile
+ * (Accept: application/x-jackson-smile) besides JSON, and accepts request bodies in the same
+ * formats. Both converters are built from Spring Boot's Jackson builder, so dates, modules and
+ * other settings match the JSON output. The Blackbird module replaces reflective getter
+ * calls with generated lambdas for every mapper (on the JVM only, not in the native image).
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        // Blackbird generates classes at runtime, which a native image cannot load
+        if (NativeDetector.inNativeImage()) {
+            return new SimpleModule("blackbird-unavailable-in-native-image");
+        }
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
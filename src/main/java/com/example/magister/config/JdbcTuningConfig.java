@@ -0,0 +1,89 @@
+package com.example.magister.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Properties;
+
+/**
+ * Connection pool, PostgreSQL driver and Hibernate settings for concurrent load, under
+ * app.jdbc.* (turn the whole module off with app.jdbc.tuning.enabled=false to compare).
+ *
+ * - Pool size: cores * app.jdbc.pool-size-per-core + 1, capped at app.jdbc.max-pool-size,
+ *   for every HikariCP pool whose size is not set explicitly (spring.datasource.hikari.* or
+ *   the replica/virtual profiles still win).
+ * - Driver: statements run prepare-threshold times become server-side prepared statements,
+ *   kept in a larger per-connection cache; JdbcTemplate batch inserts (the audit log) are
+ *   rewritten into multi-row INSERTs.
+ * - Fetch size for JdbcTemplate and Hibernate queries, so large reads (reports, exports,
+ *   archive jobs) stream in chunks instead of materializing the whole result at once.
+ * - Hibernate pads IN-clause parameter lists to powers of two and keeps a larger query plan
+ *   cache, so "id IN (...)" queries of varying length reuse a few plans and prepared
+ *   statements instead of one per list size.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.jdbc.tuning.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class JdbcTuningConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcTuningPostProcessor(Environment environment) {
+        int perCore = environment.getProperty("app.jdbc.pool-size-per-core", Integer.class, 2);
+        int maxPoolSize = environment.getProperty("app.jdbc.max-pool-size", Integer.class, 30);
+        int fetchSize = environment.getProperty("app.jdbc.fetch-size", Integer.class, 500);
+        Properties driverProperties = new Properties();
+        driverProperties.setProperty("prepareThreshold",
+                environment.getProperty("app.jdbc.prepare-threshold", "3"));
+        driverProperties.setProperty("preparedStatementCacheQueries",
+                environment.getProperty("app.jdbc.statement-cache-queries", "512"));
+        driverProperties.setProperty("preparedStatementCacheSizeMiB",
+                environment.getProperty("app.jdbc.statement-cache-size-mib", "16"));
+        driverProperties.setProperty("reWriteBatchedInserts",
+                environment.getProperty("app.jdbc.rewrite-batched-inserts", "true"));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    tunePool(dataSource, perCore, maxPoolSize, driverProperties);
+                } else if (bean instanceof JdbcTemplate jdbcTemplate && jdbcTemplate.getFetchSize() <= 0) {
+                    jdbcTemplate.setFetchSize(fetchSize);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer jdbcTuningHibernateProperties(Environment environment) {
+        String fetchSize = environment.getProperty("app.jdbc.fetch-size", "500");
+        String planCacheSize = environment.getProperty("app.jdbc.query-plan-cache-size", "4096");
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.fetch_size", fetchSize);
+            properties.putIfAbsent("hibernate.query.in_clause_parameter_padding", "true");
+            properties.putIfAbsent("hibernate.query.plan_cache_max_size", planCacheSize);
+        };
+    }
+
+    // Explicit settings win: HikariCP reports -1 for a pool size nobody configured
+    private static void tunePool(HikariDataSource dataSource, int perCore, int maxPoolSize, Properties driverProperties) {
+        if (dataSource.getMaximumPoolSize() <= 0) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            dataSource.setMaximumPoolSize(Math.min(cores * perCore + 1, maxPoolSize));
+        }
+        for (String name : driverProperties.stringPropertyNames()) {
+            if (!dataSource.getDataSourceProperties().containsKey(name)) {
+                dataSource.addDataSourceProperty(name, driverProperties.getProperty(name));
+            }
+        }
+        log.info("Pool {}: maximumPoolSize={}, driver properties {}",
+                dataSource.getPoolName(), dataSource.getMaximumPoolSize(), dataSource.getDataSourceProperties());
+    }
+}
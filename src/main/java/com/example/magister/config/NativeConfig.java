@@ -0,0 +1,75 @@
+package com.example.magister.config;
+
+import com.example.magister.entity.TenantEntityListener;
+import com.example.magister.exception.ErrorResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reachability metadata for the GraalVM native image (mvn -Pnative native:compile) that
+ * Spring AOT and the shared metadata repository do not infer on their own.
+ *
+ * Controller parameters and return types, JPA entities, repositories and springdoc are
+ * covered by Spring AOT. This adds what is only reached through reflection at runtime:
+ * JJWT's implementation classes (loaded by name from jjwt-api) and its Jackson serializer
+ * service, every DTO (also serialized outside controllers: SSE events, stored idempotent
+ * responses, 429 bodies), the JPA entity listener and the Swagger UI assets.
+ */
+@Configuration
+@ImportRuntimeHints(NativeConfig.MagisterRuntimeHints.class)
+public class NativeConfig {
+
+    static class MagisterRuntimeHints implements RuntimeHintsRegistrar {
+
+        private static final String[] JJWT_TYPES = {
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParser",
+                "io.jsonwebtoken.impl.DefaultClaims",
+                "io.jsonwebtoken.impl.DefaultHeader",
+                "io.jsonwebtoken.impl.DefaultJwsHeader",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+            BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+            bindings.registerReflectionHints(hints.reflection(), dtoTypes(classLoader).toArray(Class<?>[]::new));
+            bindings.registerReflectionHints(hints.reflection(), ErrorResponse.class);
+
+            hints.reflection().registerType(TenantEntityListener.class,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+            hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/**");
+        }
+
+        // Runs at build time (process-aot), so scanning the package costs nothing at startup
+        private List<Class<?>> dtoTypes(ClassLoader classLoader) {
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.addIncludeFilter((reader, factory) -> true);
+            List<Class<?>> types = new ArrayList<>();
+            for (BeanDefinition candidate : scanner.findCandidateComponents("com.example.magister.dto")) {
+                types.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+            }
+            return types;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.magister.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Read-replica routing, enabled with the "replica" profile (app.datasource.replica.enabled=true).
+ *
+ * The primary pool is configured from spring.datasource.*, the replica gets its own HikariCP
+ * pool from app.datasource.replica.*. Service methods annotated
+ * {@code @Transactional(readOnly = true)} read from the replica; see ReplicaRoutingDataSource
+ * for when they fall back to the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+@Slf4j
+public class ReplicaDataSourceConfig {
+
+    // NULL on a primary (or when the replica has replayed everything it received) means no lag
+    private static final String LAG_SQL = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() " +
+            "THEN 0 ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    @Value("${app.datasource.replica.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username}") String username,
+                                              @Value("${app.datasource.replica.password}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                 @Value("${app.datasource.replica.sticky-window-ms:3000}") long stickyWindowMs) {
+        routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, stickyWindowMs);
+        replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        log.info("Read-only transactions are routed to the replica pool");
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-ms:1000}")
+    public void checkReplicaLag() {
+        if (routingDataSource == null) {
+            return;
+        }
+        try {
+            Double lagMs = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            routingDataSource.setReplicaLagging(lagMs != null && lagMs > maxLagMs);
+        } catch (RuntimeException e) {
+            log.warn("Replica lag check failed, routing reads to primary: {}", e.getMessage());
+            routingDataSource.setReplicaLagging(true);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.magister.config;
+
+import com.example.magister.security.MagisterPrincipal;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to the replica pool and everything else to
+ * the primary. Must sit behind a LazyConnectionDataSourceProxy so the connection is taken
+ * after the transaction's read-only flag is known.
+ *
+ * A read goes to the primary instead when:
+ * - it runs inside readFromPrimary (bodies of responses that carry a version-stamp ETag);
+ * - the current user committed a write within the sticky window, so they see their own change;
+ * - the lag probe reports the replica further behind than app.datasource.replica.max-lag-ms;
+ * - the replica pool has no idle connection and callers already waiting, or a replica
+ *   connection cannot be obtained within its (short) connection timeout.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final int STICKY_PURGE_THRESHOLD = 10_000;
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final long stickyWindowMs;
+    private final ConcurrentHashMap<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private volatile boolean replicaLagging;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica, long stickyWindowMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.stickyWindowMs = stickyWindowMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markWriterSticky();
+            return primary.getConnection();
+        }
+        if (replicaLagging || PRIMARY_ONLY.get() != null || isSticky(currentUserId()) || replicaSaturated()) {
+            log.debug("Read-only transaction routed to primary (replicaLagging={})", replicaLagging);
+            primaryReads.incrementAndGet();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            log.debug("Read-only transaction routed to replica");
+            replicaReads.incrementAndGet();
+            return connection;
+        } catch (SQLException e) {
+            long total = fallbacks.incrementAndGet();
+            if (total == 1 || total % 100 == 0) {
+                log.warn("Replica connection unavailable, reading from primary ({} fallbacks so far): {}",
+                        total, e.getMessage());
+            }
+            primaryReads.incrementAndGet();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Runs action with every read on the primary. For responses whose ETag comes from
+     * VersionStampService: stamps are read from the primary, so a body read from a lagging
+     * replica could be cached by the client under the new tag and then confirmed by 304s
+     * until the next change. Such bodies are only built when the stamp has moved, which is
+     * also when the replica is most likely behind, so the primary pays little for it.
+     * Without the replica profile this only sets a flag nobody reads.
+     */
+    public static <T> T readFromPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_ONLY.remove();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Routing data source uses the pools' own credentials");
+    }
+
+    public void setReplicaLagging(boolean replicaLagging) {
+        if (this.replicaLagging != replicaLagging) {
+            log.info(replicaLagging ? "Replica is lagging, routing reads to primary" : "Replica caught up, routing reads to replica");
+        }
+        this.replicaLagging = replicaLagging;
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads.get();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    // The window starts when the write commits, not when its connection was taken
+    private void markWriterSticky() {
+        Long userId = currentUserId();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long now = System.currentTimeMillis();
+                stickyUntil.put(userId, now + stickyWindowMs);
+                if (stickyUntil.size() > STICKY_PURGE_THRESHOLD) {
+                    stickyUntil.values().removeIf(until -> until < now);
+                }
+            }
+        });
+    }
+
+    private boolean isSticky(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until < System.currentTimeMillis()) {
+            stickyUntil.remove(userId, until);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean replicaSaturated() {
+        HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+        return pool != null && pool.getIdleConnections() == 0
+                && pool.getTotalConnections() >= replica.getMaximumPoolSize()
+                && pool.getThreadsAwaitingConnection() > 0;
+    }
+
+    private Long currentUserId() {
+        MagisterPrincipal principal = MagisterPrincipal.current();
+        return principal != null ? principal.userId() : null;
+    }
+}
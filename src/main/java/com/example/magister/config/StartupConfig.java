@@ -0,0 +1,65 @@
+package com.example.magister.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+
+/**
+ * Defers creation of beans that no request needs at startup (by default none; the "fast"
+ * profile lists springdoc) until their first use.
+ *
+ * spring.main.lazy-initialization is not used: it would also defer the services that only
+ * register @Scheduled jobs and event listeners, so those jobs would never run.
+ */
+@Configuration
+@Slf4j
+public class StartupConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyPackagesPostProcessor(Environment environment) {
+        String[] packages = environment.getProperty("app.startup.lazy-packages", String[].class, new String[0]);
+        return beanFactory -> {
+            if (packages.length == 0) {
+                return;
+            }
+            int count = 0;
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (inPackages(declaringClassOf(definition), packages)) {
+                    definition.setLazyInit(true);
+                    count++;
+                }
+            }
+            log.debug("Marked {} beans from {} lazy", count, String.join(", ", packages));
+        };
+    }
+
+    // @Bean methods have no bean class name; use the configuration class that declares them
+    private static String declaringClassOf(BeanDefinition definition) {
+        if (definition.getBeanClassName() != null) {
+            return definition.getBeanClassName();
+        }
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            return factoryMethod != null ? factoryMethod.getDeclaringClassName() : null;
+        }
+        return null;
+    }
+
+    private static boolean inPackages(String className, String[] packages) {
+        if (className == null) {
+            return false;
+        }
+        for (String prefix : packages) {
+            if (className.startsWith(prefix + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.magister.config;
+
+import com.example.magister.entity.TenantScopedEntity;
+import com.example.magister.security.TenantContext;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Switches the Hibernate tenant filter on for the current branch at the start of every
+ * transaction, and off when the thread has no tenant (scheduled jobs, startup backfills),
+ * so the same session bound by open-in-view never keeps a stale filter.
+ */
+public class TenantFilterTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        EntityManagerHolder holder =
+                (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        if (holder == null) {
+            return;
+        }
+        Session session = holder.getEntityManager().unwrap(Session.class);
+        Long tenantId = TenantContext.getTenantId();
+        if (tenantId != null) {
+            session.enableFilter(TenantScopedEntity.TENANT_FILTER)
+                    .setParameter(TenantScopedEntity.TENANT_PARAM, tenantId);
+        } else {
+            session.disableFilter(TenantScopedEntity.TENANT_FILTER);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.magister.config;
+
+import com.example.magister.security.CurrentUserArgumentResolver;
+import com.example.magister.security.MagisterPrincipal;
+import org.springdoc.core.utils.SpringDocUtils;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    static {
+        // Resolved from the JWT, not a request parameter; keep it out of the OpenAPI spec
+        SpringDocUtils.getConfig().addRequestWrapperToIgnore(MagisterPrincipal.class);
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentUserArgumentResolver());
+    }
+}
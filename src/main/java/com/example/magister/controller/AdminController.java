@@ -1,16 +1,24 @@
 package com.example.magister.controller;
 
 import com.example.magister.dto.*;
+import com.example.magister.entity.EnrollmentStatus;
 import com.example.magister.entity.UserRole;
+import com.example.magister.security.MagisterPrincipal;
+import com.example.magister.security.RateLimiter;
+import com.example.magister.security.TenantContext;
 import com.example.magister.service.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -25,14 +33,80 @@ public class AdminController {
     private final AttendanceService attendanceService;
     private final CoinService coinService;
     private final DashboardService dashboardService;
+    private final AuditService auditService;
+    private final IdempotencyService idempotencyService;
+    private final RevenueService revenueService;
+    private final BillingService billingService;
+    private final AttendanceStatsService attendanceStatsService;
+    private final AttendanceArchiveService attendanceArchiveService;
+    private final SearchService searchService;
+    private final RateLimiter rateLimiter;
+    private final OutboxPublisher outboxPublisher;
+    private final CoinLedgerService coinLedgerService;
+    private final RewardService rewardService;
 
     // Dashboard
     @GetMapping("/dashboard")
-    @Operation(summary = "Get admin dashboard")
+    @Operation(summary = "Get admin dashboard",
+               description = "Served from a snapshot recomputed every app.dashboard.refresh-interval-ms; see computedAt.")
     public ResponseEntity<AdminDashboardDTO> getDashboard() {
         return ResponseEntity.ok(dashboardService.getAdminDashboard());
     }
 
+    @PostMapping("/dashboard/refresh")
+    @Operation(summary = "Recompute the admin dashboard now",
+               description = "Joins a refresh that is already running instead of starting a second one.")
+    public ResponseEntity<AdminDashboardDTO> refreshDashboard() {
+        return ResponseEntity.ok(dashboardService.refreshAdminDashboard());
+    }
+
+    @GetMapping("/rate-limit")
+    @Operation(summary = "Get rate limiter counters",
+               description = "Requests allowed and throttled (429) since startup, per role, and buckets in memory.")
+    public ResponseEntity<RateLimitStatsDTO> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimiter.getStats());
+    }
+
+    @GetMapping("/outbox")
+    @Operation(summary = "Get outbox publisher state",
+               description = "Pending and failed events, age of the oldest pending event and delivery counters, across all branches.")
+    public ResponseEntity<OutboxStatsDTO> getOutboxStats() {
+        return ResponseEntity.ok(outboxPublisher.getStats());
+    }
+
+    @PostMapping("/outbox/requeue-failed")
+    @Operation(summary = "Retry outbox events that exhausted app.outbox.max-attempts")
+    public ResponseEntity<OutboxStatsDTO> requeueFailedOutboxEvents() {
+        outboxPublisher.requeueFailed();
+        return ResponseEntity.ok(outboxPublisher.getStats());
+    }
+
+    // Audit Log
+    @GetMapping("/audit")
+    @Operation(summary = "Get audit log",
+               description = "Newest first. Pass nextCursor from the previous page as 'before' to continue.")
+    public ResponseEntity<AuditPageDTO> getAuditLog(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) Long actorId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(auditService.getAuditLog(entityType, entityId, actorId, before, size));
+    }
+
+    // Search
+    @GetMapping("/search")
+    @Operation(summary = "Typeahead search over users and groups",
+               description = "Matches user full name, email and phone, and group name; ranked, prefix matches first. type: USER or GROUP.")
+    public ResponseEntity<SearchPageDTO> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchService.search(q, type, role, null, page, size));
+    }
+
     // User Management
     @GetMapping("/users")
     @Operation(summary = "Get all users")
@@ -102,8 +176,14 @@ public class AdminController {
 
     @PostMapping("/payments")
     @Operation(summary = "Create payment for any group")
-    public ResponseEntity<PaymentDTO> createPayment(@Valid @RequestBody CreatePaymentRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(paymentService.createPaymentByAdmin(request));
+    public ResponseEntity<PaymentDTO> createPayment(
+            @Valid @RequestBody CreatePaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            MagisterPrincipal principal) {
+        Long adminId = principal.userId();
+        PaymentDTO payment = idempotencyService.execute("admin-payment", adminId, idempotencyKey,
+                request, PaymentDTO.class, () -> paymentService.createPaymentByAdmin(request));
+        return ResponseEntity.status(HttpStatus.CREATED).body(payment);
     }
 
     @PutMapping("/payments/{id}")
@@ -139,7 +219,85 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    // Revenue Analytics
+    @GetMapping("/revenue")
+    @Operation(summary = "Get revenue report",
+               description = "Totals for the date range bucketed by DAY, MONTH, TEACHER, GROUP or METHOD, served from pre-aggregated rollups.")
+    public ResponseEntity<RevenueReportDTO> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "MONTH") RevenueGrouping groupBy,
+            @RequestParam(required = false) Long teacherId,
+            @RequestParam(required = false) Long groupId) {
+        return ResponseEntity.ok(revenueService.getRevenue(from, to, groupBy, teacherId, groupId));
+    }
+
+    @PostMapping("/revenue/rebuild")
+    @Operation(summary = "Rebuild revenue rollups from all payments")
+    public ResponseEntity<Void> rebuildRevenueRollups() {
+        TenantContext.runAcrossTenants(revenueService::rebuildRollups);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Billing
+    @GetMapping("/debtors")
+    @Operation(summary = "Get enrollments with an outstanding balance",
+               description = "Across all groups, served from per-enrollment balances. Sort by balance, chargedAmount, paidAmount or enrolledAt.")
+    public ResponseEntity<DebtorPageDTO> getDebtors(
+            @RequestParam(required = false) BigDecimal minBalance,
+            @RequestParam(required = false) Long groupId,
+            @RequestParam(required = false) EnrollmentStatus status,
+            @RequestParam(defaultValue = "balance") String sort,
+            @RequestParam(defaultValue = "DESC") Sort.Direction direction,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(billingService.getDebtors(minBalance, groupId, status, sort, direction, page, size));
+    }
+
+    @GetMapping("/students/{studentId}/balances")
+    @Operation(summary = "Get a student's balance in each group")
+    public ResponseEntity<List<EnrollmentBalanceDTO>> getStudentBalances(@PathVariable Long studentId) {
+        return ResponseEntity.ok(billingService.getBalancesByStudent(studentId));
+    }
+
+    @PostMapping("/billing/rebuild")
+    @Operation(summary = "Recompute all enrollment balances from payments and current group fees")
+    public ResponseEntity<Void> rebuildBalances() {
+        TenantContext.runAcrossTenants(billingService::rebuildBalances);
+        return ResponseEntity.noContent().build();
+    }
+
     // Attendance Management
+    @GetMapping("/attendance/group/{groupId}/matrix")
+    @Operation(summary = "Get the group attendance grid (students x lessons) in packed form",
+               description = "Two bits per cell: 0 = not marked, 1 = PRESENT, 2 = ABSENT, 3 = LATE. 'to' is inclusive.")
+    public ResponseEntity<AttendanceMatrixDTO> getAttendanceMatrix(
+            @PathVariable Long groupId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(attendanceService.getAttendanceMatrix(groupId, from, to));
+    }
+
+    @GetMapping("/attendance/at-risk")
+    @Operation(summary = "Get students with falling attendance in a teacher's groups")
+    public ResponseEntity<List<AttendanceRiskDTO>> getStudentsAtRisk(@RequestParam Long teacherId) {
+        return ResponseEntity.ok(attendanceStatsService.getStudentsAtRisk(teacherId));
+    }
+
+    @PostMapping("/attendance/archive")
+    @Operation(summary = "Move attendance older than the retention window to the archive now")
+    public ResponseEntity<Void> archiveAttendance() {
+        TenantContext.runAcrossTenants(attendanceArchiveService::runMaintenance);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/attendance/stats/rebuild")
+    @Operation(summary = "Recompute attendance statistics from all attendance records")
+    public ResponseEntity<Void> rebuildAttendanceStats() {
+        TenantContext.runAcrossTenants(attendanceStatsService::rebuildAll);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/attendance/group/{groupId}")
     @Operation(summary = "Get attendance by group")
     public ResponseEntity<List<AttendanceDTO>> getAttendanceByGroup(@PathVariable Long groupId) {
@@ -148,8 +306,11 @@ public class AdminController {
 
     @GetMapping("/attendance/student/{studentId}")
     @Operation(summary = "Get attendance by student")
-    public ResponseEntity<List<AttendanceDTO>> getAttendanceByStudent(@PathVariable Long studentId) {
-        return ResponseEntity.ok(attendanceService.getAttendanceByStudent(studentId));
+    public ResponseEntity<List<AttendanceDTO>> getAttendanceByStudent(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(attendanceService.getAttendanceByStudent(studentId, from, to));
     }
 
     // Coins Management
@@ -170,4 +331,58 @@ public class AdminController {
     public ResponseEntity<List<LeaderboardEntryDTO>> getGroupLeaderboard(@PathVariable Long groupId) {
         return ResponseEntity.ok(coinService.getGroupLeaderboard(groupId));
     }
+
+    @GetMapping("/coins/ledger")
+    @Operation(summary = "Get the latest coin ledger check",
+               description = "Result of the last comparison of coin balances with the coins ledger; empty before the first check.")
+    public ResponseEntity<CoinLedgerReportDTO> getCoinLedgerReport() {
+        return ResponseEntity.ok(coinLedgerService.getLastReport());
+    }
+
+    @PostMapping("/coins/ledger/verify")
+    @Operation(summary = "Compare coin balances with the coins ledger now (head office only)",
+               description = "With repair=true, balances are rebuilt from the ledger when any pair differs.")
+    public ResponseEntity<CoinLedgerReportDTO> verifyCoinLedger(@RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(TenantContext.callAcrossTenants(() -> coinLedgerService.verify(repair)));
+    }
+
+    @PostMapping("/coins/ledger/rebuild")
+    @Operation(summary = "Rebuild coin balances from the coins ledger (head office only)")
+    public ResponseEntity<Void> rebuildCoinBalances() {
+        TenantContext.runAcrossTenants(coinLedgerService::rebuild);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Rewards
+    @GetMapping("/rewards")
+    @Operation(summary = "Get all rewards, including withdrawn ones")
+    public ResponseEntity<List<RewardDTO>> getAllRewards() {
+        return ResponseEntity.ok(rewardService.getAllRewards());
+    }
+
+    @PostMapping("/rewards")
+    @Operation(summary = "Add a reward to the coin shop", description = "Leave stock out for a reward that never runs out.")
+    public ResponseEntity<RewardDTO> createReward(@Valid @RequestBody CreateRewardRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(rewardService.createReward(request));
+    }
+
+    @PutMapping("/rewards/{id}")
+    @Operation(summary = "Update a reward", description = "Set active=false to withdraw it from the shop.")
+    public ResponseEntity<RewardDTO> updateReward(
+            @PathVariable Long id,
+            @Valid @RequestBody UpdateRewardRequest request) {
+        return ResponseEntity.ok(rewardService.updateReward(id, request));
+    }
+
+    @PostMapping("/rewards/{id}/restock")
+    @Operation(summary = "Add units to a reward's stock")
+    public ResponseEntity<RewardDTO> restockReward(@PathVariable Long id, @RequestParam int quantity) {
+        return ResponseEntity.ok(rewardService.restockReward(id, quantity));
+    }
+
+    @GetMapping("/rewards/{id}/redemptions")
+    @Operation(summary = "Get who redeemed a reward")
+    public ResponseEntity<List<RedemptionDTO>> getRewardRedemptions(@PathVariable Long id) {
+        return ResponseEntity.ok(rewardService.getRedemptionsByReward(id));
+    }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.magister.controller;
 
 import com.example.magister.dto.*;
 import com.example.magister.entity.UserRole;
+import com.example.magister.security.MagisterPrincipal;
 import com.example.magister.service.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -37,17 +38,17 @@ public class AuthController {
 
     @GetMapping("/profile")
     @Operation(summary = "Get current user profile")
-    public ResponseEntity<UserDTO> getProfile(@RequestHeader("X-User-Id") Long userId) {
-        UserDTO user = authService.getUserProfile(userId);
+    public ResponseEntity<UserDTO> getProfile(MagisterPrincipal principal) {
+        UserDTO user = authService.getUserProfile(principal.userId());
         return ResponseEntity.ok(user);
     }
 
     @PutMapping("/profile")
     @Operation(summary = "Update current user profile")
     public ResponseEntity<UserDTO> updateProfile(
-            @RequestHeader("X-User-Id") Long userId,
+            MagisterPrincipal principal,
             @Valid @RequestBody UpdateUserRequest request) {
-        UserDTO user = authService.updateProfile(userId, request);
+        UserDTO user = authService.updateProfile(principal.userId(), request);
         return ResponseEntity.ok(user);
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.magister.controller;
 
 import com.example.magister.dto.*;
+import com.example.magister.security.MagisterPrincipal;
 import com.example.magister.service.GroupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -8,7 +9,6 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,8 +25,8 @@ public class GroupController {
     @Operation(summary = "Create group (Teachers can create groups for themselves, admins for any teacher)")
     public ResponseEntity<GroupDTO> createGroup(
             @Valid @RequestBody CreateGroupRequest request,
-            Authentication authentication) {
-        Long currentUserId = (Long) authentication.getPrincipal();
+            MagisterPrincipal principal) {
+        Long currentUserId = principal.userId();
         GroupDTO group = groupService.createGroup(request, currentUserId);
         return ResponseEntity.status(HttpStatus.CREATED).body(group);
     }
@@ -36,8 +36,8 @@ public class GroupController {
     public ResponseEntity<GroupDTO> updateGroup(
             @PathVariable Long id,
             @Valid @RequestBody UpdateGroupRequest request,
-            Authentication authentication) {
-        Long currentUserId = (Long) authentication.getPrincipal();
+            MagisterPrincipal principal) {
+        Long currentUserId = principal.userId();
         return ResponseEntity.ok(groupService.updateGroup(id, request, currentUserId));
     }
 
@@ -46,8 +46,8 @@ public class GroupController {
     public ResponseEntity<Void> enrollStudent(
             @PathVariable Long groupId,
             @PathVariable Long studentId,
-            Authentication authentication) {
-        Long currentUserId = (Long) authentication.getPrincipal();
+            MagisterPrincipal principal) {
+        Long currentUserId = principal.userId();
         groupService.enrollStudent(groupId, studentId, currentUserId);
         return ResponseEntity.ok().build();
     }
@@ -57,12 +57,42 @@ public class GroupController {
     public ResponseEntity<Void> removeStudent(
             @PathVariable Long groupId,
             @PathVariable Long studentId,
-            Authentication authentication) {
-        Long currentUserId = (Long) authentication.getPrincipal();
+            MagisterPrincipal principal) {
+        Long currentUserId = principal.userId();
         groupService.removeStudent(groupId, studentId, currentUserId);
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/{groupId}/enroll")
+    @Operation(summary = "Enroll many students in a group at once, with an outcome per student")
+    public ResponseEntity<EnrollmentBatchResultDTO> enrollStudents(
+            @PathVariable Long groupId,
+            @RequestBody EnrollmentBatchRequest request,
+            MagisterPrincipal principal) {
+        Long currentUserId = principal.userId();
+        return ResponseEntity.ok(groupService.enrollStudents(groupId, request.getStudentIds(), currentUserId));
+    }
+
+    @PostMapping("/{groupId}/students/remove")
+    @Operation(summary = "Remove many students from a group at once, with an outcome per student")
+    public ResponseEntity<EnrollmentBatchResultDTO> removeStudents(
+            @PathVariable Long groupId,
+            @RequestBody EnrollmentBatchRequest request,
+            MagisterPrincipal principal) {
+        Long currentUserId = principal.userId();
+        return ResponseEntity.ok(groupService.removeStudents(groupId, request.getStudentIds(), currentUserId));
+    }
+
+    @PostMapping("/{groupId}/transfer/{targetGroupId}")
+    @Operation(summary = "Move all active students of a group to another group (Teachers must own both groups)")
+    public ResponseEntity<EnrollmentBatchResultDTO> transferStudents(
+            @PathVariable Long groupId,
+            @PathVariable Long targetGroupId,
+            MagisterPrincipal principal) {
+        Long currentUserId = principal.userId();
+        return ResponseEntity.ok(groupService.transferStudents(groupId, targetGroupId, currentUserId));
+    }
+
     @GetMapping
     @Operation(summary = "Get all groups")
     public ResponseEntity<List<GroupDTO>> getAllGroups() {
@@ -1,13 +1,23 @@
 package com.example.magister.controller;
 
+import com.example.magister.config.ReplicaRoutingDataSource;
 import com.example.magister.dto.*;
+import com.example.magister.security.MagisterPrincipal;
 import com.example.magister.service.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -21,91 +31,157 @@ public class StudentController {
     private final PaymentService paymentService;
     private final CoinService coinService;
     private final DashboardService dashboardService;
+    private final VersionStampService versionStampService;
+    private final StudentEventService studentEventService;
+    private final BillingService billingService;
+    private final RewardService rewardService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping("/dashboard")
     @Operation(summary = "Get student dashboard")
-    public ResponseEntity<StudentDashboardDTO> getDashboard(@RequestHeader("X-User-Id") Long studentId) {
-        return ResponseEntity.ok(dashboardService.getStudentDashboard(studentId));
+    public ResponseEntity<StudentDashboardDTO> getDashboard(
+            MagisterPrincipal student,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versionStampService.studentEtag("dashboard", student.userId());
+        if (versionStampService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ReplicaRoutingDataSource.readFromPrimary(
+                        () -> dashboardService.getStudentDashboard(student.userId())));
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream my coin, attendance and payment events (SSE, resumable via Last-Event-ID)")
+    public SseEmitter streamEvents(
+            MagisterPrincipal student,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return studentEventService.subscribe(student.userId(), lastEventId);
     }
 
     @GetMapping("/groups")
     @Operation(summary = "Get my groups")
-    public ResponseEntity<List<GroupDTO>> getMyGroups(@RequestHeader("X-User-Id") Long studentId) {
-        return ResponseEntity.ok(groupService.getGroupsByStudent(studentId));
+    public ResponseEntity<List<GroupDTO>> getMyGroups(MagisterPrincipal student) {
+        return ResponseEntity.ok(groupService.getGroupsByStudent(student.userId()));
     }
 
     @GetMapping("/attendance")
     @Operation(summary = "Get my attendance")
-    public ResponseEntity<List<AttendanceDTO>> getMyAttendance(@RequestHeader("X-User-Id") Long studentId) {
-        return ResponseEntity.ok(attendanceService.getAttendanceByStudent(studentId));
+    public ResponseEntity<List<AttendanceDTO>> getMyAttendance(
+            MagisterPrincipal student,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(attendanceService.getAttendanceByStudent(student.userId(), from, to));
     }
 
     @GetMapping("/attendance/group/{groupId}")
     @Operation(summary = "Get my attendance by group")
     public ResponseEntity<List<AttendanceDTO>> getMyAttendanceByGroup(
-            @RequestHeader("X-User-Id") Long studentId,
+            MagisterPrincipal student,
             @PathVariable Long groupId) {
-        return ResponseEntity.ok(attendanceService.getAttendanceByStudentAndGroup(studentId, groupId));
+        return ResponseEntity.ok(attendanceService.getAttendanceByStudentAndGroup(student.userId(), groupId));
     }
 
     @GetMapping("/attendance/summary")
     @Operation(summary = "Get attendance summary")
     public ResponseEntity<AttendanceSummary> getAttendanceSummary(
-            @RequestHeader("X-User-Id") Long studentId) {
-        return ResponseEntity.ok(attendanceService.getAttendanceSummary(studentId));
+            MagisterPrincipal student) {
+        return ResponseEntity.ok(attendanceService.getAttendanceSummary(student.userId()));
     }
 
     @GetMapping("/payments")
     @Operation(summary = "Get my payments")
-    public ResponseEntity<List<PaymentDTO>> getMyPayments(@RequestHeader("X-User-Id") Long studentId) {
-        return ResponseEntity.ok(paymentService.getPaymentsByStudent(studentId));
+    public ResponseEntity<List<PaymentDTO>> getMyPayments(MagisterPrincipal student) {
+        return ResponseEntity.ok(paymentService.getPaymentsByStudent(student.userId()));
     }
 
     @GetMapping("/payments/group/{groupId}")
     @Operation(summary = "Get my payments by group")
     public ResponseEntity<List<PaymentDTO>> getMyPaymentsByGroup(
-            @RequestHeader("X-User-Id") Long studentId,
+            MagisterPrincipal student,
             @PathVariable Long groupId) {
-        return ResponseEntity.ok(paymentService.getPaymentsByStudentAndGroup(studentId, groupId));
+        return ResponseEntity.ok(paymentService.getPaymentsByStudentAndGroup(student.userId(), groupId));
+    }
+
+    @GetMapping("/balances")
+    @Operation(summary = "Get what I owe in each group")
+    public ResponseEntity<List<EnrollmentBalanceDTO>> getMyBalances(MagisterPrincipal student) {
+        return ResponseEntity.ok(billingService.getBalancesByStudent(student.userId()));
     }
 
     @GetMapping("/coins")
     @Operation(summary = "Get my coins")
-    public ResponseEntity<List<CoinDTO>> getMyCoins(@RequestHeader("X-User-Id") Long studentId) {
-        return ResponseEntity.ok(coinService.getCoinsByStudent(studentId));
+    public ResponseEntity<List<CoinDTO>> getMyCoins(MagisterPrincipal student) {
+        return ResponseEntity.ok(coinService.getCoinsByStudent(student.userId()));
     }
 
     @GetMapping("/coins/group/{groupId}")
     @Operation(summary = "Get my coins by group")
     public ResponseEntity<List<CoinDTO>> getMyCoinsByGroup(
-            @RequestHeader("X-User-Id") Long studentId,
+            MagisterPrincipal student,
             @PathVariable Long groupId) {
-        return ResponseEntity.ok(coinService.getCoinsByStudentAndGroup(studentId, groupId));
+        return ResponseEntity.ok(coinService.getCoinsByStudentAndGroup(student.userId(), groupId));
     }
 
     @GetMapping("/coins/leaderboard/{groupId}")
     @Operation(summary = "Get group leaderboard")
     public ResponseEntity<List<LeaderboardEntryDTO>> getGroupLeaderboard(
-            @RequestHeader("X-User-Id") Long studentId,
+            MagisterPrincipal student,
             @PathVariable Long groupId) {
-        return ResponseEntity.ok(coinService.getGroupLeaderboardForStudent(studentId, groupId));
+        return ResponseEntity.ok(coinService.getGroupLeaderboardForStudent(student.userId(), groupId));
     }
 
     @GetMapping("/coins/grouped")
     @Operation(summary = "Get my coins grouped by group")
-    public ResponseEntity<List<CoinsByGroupDTO>> getMyCoinsGrouped(@RequestHeader("X-User-Id") Long studentId) {
-        return ResponseEntity.ok(coinService.getCoinsByStudentGrouped(studentId));
+    public ResponseEntity<List<CoinsByGroupDTO>> getMyCoinsGrouped(MagisterPrincipal student) {
+        return ResponseEntity.ok(coinService.getCoinsByStudentGrouped(student.userId()));
     }
 
     @GetMapping("/coins/summary")
     @Operation(summary = "Get coin summary")
-    public ResponseEntity<CoinSummary> getCoinSummary(@RequestHeader("X-User-Id") Long studentId) {
-        return ResponseEntity.ok(coinService.getCoinSummary(studentId));
+    public ResponseEntity<CoinSummary> getCoinSummary(
+            MagisterPrincipal student,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versionStampService.studentEtag("coin-summary", student.userId());
+        if (versionStampService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ReplicaRoutingDataSource.readFromPrimary(
+                        () -> coinService.getCoinSummary(student.userId())));
     }
 
     @GetMapping("/coins/total")
     @Operation(summary = "Get total coins")
-    public ResponseEntity<Integer> getTotalCoins(@RequestHeader("X-User-Id") Long studentId) {
-        return ResponseEntity.ok(coinService.getTotalCoinsByStudent(studentId));
+    public ResponseEntity<Integer> getTotalCoins(MagisterPrincipal student) {
+        return ResponseEntity.ok(coinService.getTotalCoinsByStudent(student.userId()));
+    }
+
+    @GetMapping("/rewards")
+    @Operation(summary = "Get rewards I can buy with coins")
+    public ResponseEntity<List<RewardDTO>> getRewards() {
+        return ResponseEntity.ok(rewardService.getAvailableRewards());
+    }
+
+    @PostMapping("/redemptions")
+    @Operation(summary = "Redeem a reward with coins from one of my groups",
+               description = "400 when the group's coin balance is too low, 409 when the reward is sold out.")
+    public ResponseEntity<RedemptionDTO> redeemReward(
+            @Valid @RequestBody RedeemRewardRequest request,
+            MagisterPrincipal student,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        RedemptionDTO redemption = idempotencyService.execute("student-redemption", student.userId(), idempotencyKey,
+                request, RedemptionDTO.class, () -> rewardService.redeemReward(request, student.userId()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(redemption);
+    }
+
+    @GetMapping("/redemptions")
+    @Operation(summary = "Get my redemptions")
+    public ResponseEntity<List<RedemptionDTO>> getMyRedemptions(MagisterPrincipal student) {
+        return ResponseEntity.ok(rewardService.getRedemptionsByStudent(student.userId()));
     }
 }
\ No newline at end of file
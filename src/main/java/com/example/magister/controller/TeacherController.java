@@ -1,16 +1,22 @@
 package com.example.magister.controller;
 
+import com.example.magister.config.ReplicaRoutingDataSource;
 import com.example.magister.dto.*;
 import com.example.magister.entity.UserRole;
+import com.example.magister.security.MagisterPrincipal;
 import com.example.magister.service.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,18 +32,32 @@ public class TeacherController {
     private final CoinService coinService;
     private final DashboardService dashboardService;
     private final UserService userService;
+    private final VersionStampService versionStampService;
+    private final IdempotencyService idempotencyService;
+    private final AttendanceStatsService attendanceStatsService;
+    private final SearchService searchService;
 
     @GetMapping("/dashboard")
     @Operation(summary = "Get teacher dashboard")
-    public ResponseEntity<TeacherDashboardDTO> getDashboard(@RequestHeader("X-User-Id") Long teacherId) {
-        return ResponseEntity.ok(dashboardService.getTeacherDashboard(teacherId));
+    public ResponseEntity<TeacherDashboardDTO> getDashboard(MagisterPrincipal teacher) {
+        return ResponseEntity.ok(dashboardService.getTeacherDashboard(teacher.userId()));
     }
 
     // Groups
     @GetMapping("/groups")
     @Operation(summary = "Get my groups")
-    public ResponseEntity<List<GroupDTO>> getMyGroups(@RequestHeader("X-User-Id") Long teacherId) {
-        return ResponseEntity.ok(groupService.getGroupsByTeacher(teacherId));
+    public ResponseEntity<List<GroupDTO>> getMyGroups(
+            MagisterPrincipal teacher,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versionStampService.teacherEtag("groups", teacher.userId());
+        if (versionStampService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ReplicaRoutingDataSource.readFromPrimary(
+                        () -> groupService.getGroupsByTeacher(teacher.userId())));
     }
 
     @GetMapping("/groups/{id}")
@@ -52,21 +72,36 @@ public class TeacherController {
         return ResponseEntity.ok(groupService.getGroupStudents(id));
     }
 
+    // Search
+    @GetMapping("/search")
+    @Operation(summary = "Typeahead search over my students and groups",
+               description = "Matches student full name, email and phone, and group name; ranked, prefix matches first. type: USER or GROUP.")
+    public ResponseEntity<SearchPageDTO> search(
+            MagisterPrincipal teacher,
+            @RequestParam String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchService.search(q, type, UserRole.STUDENT, teacher.userId(), page, size));
+    }
+
     // Students
     @PostMapping("/students")
     @Operation(summary = "Create a new student")
     public ResponseEntity<UserDTO> createStudent(
             @Valid @RequestBody CreateUserRequest request) {
         request.setRole(UserRole.STUDENT);
+        // Teachers always create students in their own branch
+        request.setTenantId(null);
         UserDTO student = userService.createUser(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(student);
     }
 
     @GetMapping("/students")
     @Operation(summary = "Get all my students across all groups")
-    public ResponseEntity<List<UserDTO>> getMyStudents(@RequestHeader("X-User-Id") Long teacherId) {
+    public ResponseEntity<List<UserDTO>> getMyStudents(MagisterPrincipal teacher) {
         // Get all groups taught by this teacher
-        List<GroupDTO> myGroups = groupService.getGroupsByTeacher(teacherId);
+        List<GroupDTO> myGroups = groupService.getGroupsByTeacher(teacher.userId());
 
         // Get all students from these groups (distinct)
         List<UserDTO> allStudents = myGroups.stream()
@@ -81,7 +116,7 @@ public class TeacherController {
     @Operation(summary = "Get student details (only if student is in my groups)")
     public ResponseEntity<UserDTO> getStudentById(
             @PathVariable Long id,
-            @RequestHeader("X-User-Id") Long teacherId) {
+            MagisterPrincipal teacher) {
         // This will be validated by service layer to ensure teacher can access this student
         return ResponseEntity.ok(userService.getUserById(id));
     }
@@ -91,8 +126,8 @@ public class TeacherController {
     public ResponseEntity<UserDTO> updateStudent(
             @PathVariable Long id,
             @Valid @RequestBody UpdateUserRequest request,
-            @RequestHeader("X-User-Id") Long teacherId) {
-        UserDTO updatedStudent = userService.updateUser(id, request, teacherId);
+            MagisterPrincipal teacher) {
+        UserDTO updatedStudent = userService.updateUser(id, request, teacher.userId());
         return ResponseEntity.ok(updatedStudent);
     }
 
@@ -100,8 +135,8 @@ public class TeacherController {
     @Operation(summary = "Delete student (only your own students)")
     public ResponseEntity<Void> deleteStudent(
             @PathVariable Long id,
-            @RequestHeader("X-User-Id") Long teacherId) {
-        userService.deleteUser(id, teacherId);
+            MagisterPrincipal teacher) {
+        userService.deleteUser(id, teacher.userId());
         return ResponseEntity.noContent().build();
     }
 
@@ -110,8 +145,8 @@ public class TeacherController {
     @Operation(summary = "Mark attendance")
     public ResponseEntity<AttendanceDTO> markAttendance(
             @Valid @RequestBody MarkAttendanceRequest request,
-            @RequestHeader("X-User-Id") Long teacherId) {
-        AttendanceDTO attendance = attendanceService.markAttendance(request, teacherId);
+            MagisterPrincipal teacher) {
+        AttendanceDTO attendance = attendanceService.markAttendance(request, teacher.userId());
         return ResponseEntity.status(HttpStatus.CREATED).body(attendance);
     }
 
@@ -120,8 +155,8 @@ public class TeacherController {
     public ResponseEntity<AttendanceDTO> updateAttendance(
             @PathVariable Long id,
             @Valid @RequestBody UpdateAttendanceRequest request,
-            @RequestHeader("X-User-Id") Long teacherId) {
-        return ResponseEntity.ok(attendanceService.updateAttendance(id, request, teacherId));
+            MagisterPrincipal teacher) {
+        return ResponseEntity.ok(attendanceService.updateAttendance(id, request, teacher.userId()));
     }
 
     @GetMapping("/attendance/group/{groupId}")
@@ -132,8 +167,28 @@ public class TeacherController {
 
     @GetMapping("/attendance/student/{studentId}")
     @Operation(summary = "Get attendance history for a specific student")
-    public ResponseEntity<List<AttendanceDTO>> getStudentAttendance(@PathVariable Long studentId) {
-        return ResponseEntity.ok(attendanceService.getAttendanceByStudent(studentId));
+    public ResponseEntity<List<AttendanceDTO>> getStudentAttendance(
+            @PathVariable Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(attendanceService.getAttendanceByStudent(studentId, from, to));
+    }
+
+    @GetMapping("/attendance/group/{groupId}/matrix")
+    @Operation(summary = "Get the group attendance grid (students x lessons) in packed form",
+               description = "Two bits per cell: 0 = not marked, 1 = PRESENT, 2 = ABSENT, 3 = LATE. 'to' is inclusive.")
+    public ResponseEntity<AttendanceMatrixDTO> getAttendanceMatrix(
+            @PathVariable Long groupId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(attendanceService.getAttendanceMatrix(groupId, from, to));
+    }
+
+    @GetMapping("/attendance/at-risk")
+    @Operation(summary = "Get students in my groups with falling attendance",
+               description = "Flags a run of consecutive absences or a low attendance rate over the most recent lessons.")
+    public ResponseEntity<List<AttendanceRiskDTO>> getStudentsAtRisk(MagisterPrincipal teacher) {
+        return ResponseEntity.ok(attendanceStatsService.getStudentsAtRisk(teacher.userId()));
     }
 
     // Payments
@@ -141,8 +196,10 @@ public class TeacherController {
     @Operation(summary = "Record payment (auto-confirmed, no admin approval needed)")
     public ResponseEntity<PaymentDTO> recordPayment(
             @Valid @RequestBody CreatePaymentRequest request,
-            @RequestHeader("X-User-Id") Long teacherId) {
-        PaymentDTO payment = paymentService.createPayment(request, teacherId);
+            MagisterPrincipal teacher,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        PaymentDTO payment = idempotencyService.execute("teacher-payment", teacher.userId(), idempotencyKey,
+                request, PaymentDTO.class, () -> paymentService.createPayment(request, teacher.userId()));
         return ResponseEntity.status(HttpStatus.CREATED).body(payment);
     }
 
@@ -151,23 +208,23 @@ public class TeacherController {
     public ResponseEntity<PaymentDTO> updatePayment(
             @PathVariable Long id,
             @Valid @RequestBody UpdatePaymentRequest request,
-            @RequestHeader("X-User-Id") Long teacherId) {
-        return ResponseEntity.ok(paymentService.updatePayment(id, request, teacherId));
+            MagisterPrincipal teacher) {
+        return ResponseEntity.ok(paymentService.updatePayment(id, request, teacher.userId()));
     }
 
     @DeleteMapping("/payments/{id}")
     @Operation(summary = "Delete payment")
     public ResponseEntity<Void> deletePayment(
             @PathVariable Long id,
-            @RequestHeader("X-User-Id") Long teacherId) {
-        paymentService.deletePayment(id, teacherId);
+            MagisterPrincipal teacher) {
+        paymentService.deletePayment(id, teacher.userId());
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/payments")
     @Operation(summary = "Get my payments")
-    public ResponseEntity<List<PaymentDTO>> getMyPayments(@RequestHeader("X-User-Id") Long teacherId) {
-        return ResponseEntity.ok(paymentService.getPaymentsByTeacher(teacherId));
+    public ResponseEntity<List<PaymentDTO>> getMyPayments(MagisterPrincipal teacher) {
+        return ResponseEntity.ok(paymentService.getPaymentsByTeacher(teacher.userId()));
     }
 
     @GetMapping("/payments/student/{studentId}")
@@ -184,8 +241,8 @@ public class TeacherController {
 
     @GetMapping("/payments/stats")
     @Operation(summary = "Get payment statistics")
-    public ResponseEntity<PaymentStatsDTO> getPaymentStats(@RequestHeader("X-User-Id") Long teacherId) {
-        return ResponseEntity.ok(paymentService.getPaymentStats(teacherId));
+    public ResponseEntity<PaymentStatsDTO> getPaymentStats(MagisterPrincipal teacher) {
+        return ResponseEntity.ok(paymentService.getPaymentStats(teacher.userId()));
     }
 
     // Coins
@@ -193,8 +250,10 @@ public class TeacherController {
     @Operation(summary = "Award coins to student")
     public ResponseEntity<CoinDTO> awardCoins(
             @Valid @RequestBody AwardCoinsRequest request,
-            @RequestHeader("X-User-Id") Long teacherId) {
-        CoinDTO coin = coinService.awardCoins(request, teacherId);
+            MagisterPrincipal teacher,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        CoinDTO coin = idempotencyService.execute("teacher-coins", teacher.userId(), idempotencyKey,
+                request, CoinDTO.class, () -> coinService.awardCoins(request, teacher.userId()));
         return ResponseEntity.status(HttpStatus.CREATED).body(coin);
     }
 
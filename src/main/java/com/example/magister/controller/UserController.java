@@ -4,6 +4,7 @@ import com.example.magister.dto.CreateUserRequest;
 import com.example.magister.dto.UpdateUserRequest;
 import com.example.magister.dto.UserDTO;
 import com.example.magister.entity.UserRole;
+import com.example.magister.security.MagisterPrincipal;
 import com.example.magister.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -11,8 +12,6 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -29,15 +28,15 @@ public class UserController {
     @Operation(summary = "Create new student (Teachers can create students for their groups)")
     public ResponseEntity<UserDTO> createStudent(
             @Valid @RequestBody CreateUserRequest request,
-            Authentication authentication) {
+            MagisterPrincipal principal) {
         
         // Force role to STUDENT
         request.setRole(UserRole.STUDENT);
         
-        // Check if user is teacher or admin
-        boolean isAdmin = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .anyMatch(role -> role.equals("ROLE_ADMIN"));
+        // Only admins may place the student in another branch
+        if (!principal.isAdmin()) {
+            request.setTenantId(null);
+        }
         
         UserDTO user = userService.createUser(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(user);
@@ -60,9 +59,9 @@ public class UserController {
     public ResponseEntity<UserDTO> updateUser(
             @PathVariable Long id,
             @Valid @RequestBody UpdateUserRequest request,
-            Authentication authentication) {
+            MagisterPrincipal principal) {
         
-        Long currentUserId = (Long) authentication.getPrincipal();
+        Long currentUserId = principal.userId();
         UserDTO user = userService.updateUser(id, request, currentUserId);
         return ResponseEntity.ok(user);
     }
@@ -1,6 +1,9 @@
 package com.example.magister.dto;
 
 import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -12,4 +15,11 @@ public class AdminDashboardDTO {
       private Integer totalTeachers;
       private PaymentStatsDTO paymentStats;
       private List<UserDTO> recentUsers;
+      private BigDecimal revenueThisMonth;
+      private BigDecimal outstandingBalance;
+      private Integer debtorCount;
+      // Share of lessons attended (PRESENT or LATE) in the last 30 days, 0-100; null without lessons
+      private Double attendanceRateLast30Days;
+      // When the snapshot this dashboard was served from was computed
+      private LocalDateTime computedAt;
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Group attendance grid in packed form. Cell (s, d) describes studentIds[s] at lessonDates[d]
+ * and is stored at index s * lessonDates.size() + d, two bits per cell, four cells per byte
+ * starting from the low bits. Values: 0 = not marked, 1 = PRESENT, 2 = ABSENT, 3 = LATE.
+ * The byte array is serialized as base64.
+ */
+@Data
+public class AttendanceMatrixDTO {
+    private Long groupId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Long> studentIds;
+    private List<String> studentNames;
+    private List<LocalDateTime> lessonDates;
+    private int bitsPerCell;
+    private byte[] cells;
+}
@@ -0,0 +1,23 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class AttendanceRiskDTO {
+    private Long studentId;
+    private String studentName;
+    private String studentPhone;
+    private Long groupId;
+    private String groupName;
+    private Integer absenceStreak;
+    private Integer windowLessons;
+    private Integer windowAbsences;
+    private Double windowRate;
+    private Double decayedRate;
+    private Integer totalLessons;
+    private LocalDateTime lastLessonDate;
+    private List<String> reasons;
+}
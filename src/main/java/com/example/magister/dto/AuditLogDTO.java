@@ -0,0 +1,16 @@
+package com.example.magister.dto;
+
+import com.example.magister.entity.AuditAction;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class AuditLogDTO {
+    private Long id;
+    private Long actorId;
+    private AuditAction action;
+    private String entityType;
+    private Long entityId;
+    private String details;
+    private LocalDateTime createdAt;
+}
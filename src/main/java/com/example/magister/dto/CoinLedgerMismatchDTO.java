@@ -0,0 +1,17 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+@Data
+public class CoinLedgerMismatchDTO {
+    private Long studentId;
+    private Long groupId;
+    // null when coin_balances has no row for the pair
+    private Long earned;
+    private Long spent;
+    private Long balance;
+    // Sum of the pair's awards in the coins ledger
+    private Long ledgerTotal;
+    // Sum of the pair's redemptions
+    private Long redeemedTotal;
+}
@@ -0,0 +1,15 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class CoinLedgerReportDTO {
+    private LocalDateTime checkedAt;
+    private int mismatchCount;
+    // The first app.coins.ledger.report-limit mismatches
+    private List<CoinLedgerMismatchDTO> mismatches;
+    private boolean repaired;
+}
@@ -6,5 +6,7 @@ import java.util.List;
 @Data
 public class CoinSummary {
     private Integer totalCoins;
+    // Coins left to spend on rewards, across all groups
+    private Integer balance;
     private List<CoinDTO> recentCoins;
 }
\ No newline at end of file
@@ -8,5 +8,7 @@ public class CoinsByGroupDTO {
     private Long groupId;
     private String groupName;
     private Integer totalCoins;
+    // Coins earned in this group that have not been spent on rewards
+    private Integer balance;
     private List<CoinDTO> coins;
 }
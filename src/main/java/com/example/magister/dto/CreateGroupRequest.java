@@ -2,10 +2,13 @@ package com.example.magister.dto;
 
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 public class CreateGroupRequest {
     private String name;
     private String description;
     private Long teacherId;
     private String schedule;
+    private BigDecimal monthlyFee;
 }
\ No newline at end of file
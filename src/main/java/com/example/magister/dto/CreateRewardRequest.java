@@ -0,0 +1,12 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+@Data
+public class CreateRewardRequest {
+    private String name;
+    private String description;
+    private Integer cost;
+    // Leave out for a reward that never runs out
+    private Integer stock;
+}
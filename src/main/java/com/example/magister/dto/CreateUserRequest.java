@@ -10,4 +10,6 @@ public class CreateUserRequest {
     private String fullName;
     private String phone;
     private UserRole role;
+    // Branch for the new user; only head-office admins may set it, others create in their own branch
+    private Long tenantId;
 }
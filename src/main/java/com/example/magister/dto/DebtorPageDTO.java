@@ -0,0 +1,13 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class DebtorPageDTO {
+    private List<EnrollmentBalanceDTO> items;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
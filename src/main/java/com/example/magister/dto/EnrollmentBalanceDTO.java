@@ -0,0 +1,25 @@
+package com.example.magister.dto;
+
+import com.example.magister.entity.EnrollmentStatus;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class EnrollmentBalanceDTO {
+    private Long enrollmentId;
+    private Long studentId;
+    private String studentName;
+    private String studentPhone;
+    private Long groupId;
+    private String groupName;
+    private EnrollmentStatus status;
+    private LocalDateTime enrolledAt;
+    private LocalDateTime completedAt;
+    private BigDecimal monthlyFee;
+    private Integer billedMonths;
+    private BigDecimal chargedAmount;
+    private BigDecimal paidAmount;
+    private BigDecimal balance;
+}
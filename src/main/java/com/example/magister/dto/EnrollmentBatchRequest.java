@@ -0,0 +1,10 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class EnrollmentBatchRequest {
+    private List<Long> studentIds;
+}
@@ -0,0 +1,15 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class EnrollmentBatchResultDTO {
+    private Long groupId;
+    // Only set for transfers
+    private Long targetGroupId;
+    // Students whose enrollment was changed by this request
+    private int changed;
+    private List<EnrollmentOutcomeDTO> results;
+}
@@ -0,0 +1,15 @@
+package com.example.magister.dto;
+
+public enum EnrollmentOutcome {
+    ENROLLED,
+    REMOVED,
+    TRANSFERRED,
+    // Already active in the (target) group; a transfer still drops them from the source group
+    ALREADY_ENROLLED,
+    // Has a completed or dropped enrollment in the (target) group, which is left as it is
+    PREVIOUSLY_ENROLLED,
+    ALREADY_REMOVED,
+    NOT_ENROLLED,
+    NOT_A_STUDENT,
+    NOT_FOUND
+}
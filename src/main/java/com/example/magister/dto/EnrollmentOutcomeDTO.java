@@ -0,0 +1,13 @@
+package com.example.magister.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentOutcomeDTO {
+    private Long studentId;
+    private EnrollmentOutcome outcome;
+}
@@ -2,6 +2,7 @@ package com.example.magister.dto;
 
 import com.example.magister.entity.GroupStatus;
 import lombok.Data;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -12,6 +13,7 @@ public class GroupDTO {
     private Long teacherId;
     private String teacherName;
     private String schedule;
+    private BigDecimal monthlyFee;
     private GroupStatus status;
     private Integer studentCount;
     private LocalDateTime createdAt;
@@ -0,0 +1,25 @@
+package com.example.magister.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEventDTO {
+    private Long id;
+    private Long tenantId;
+    private String aggregateType;
+    private Long aggregateId;
+    // 1, 2, 3... per aggregate; consumers drop anything at or below the last sequence they applied
+    private Long sequence;
+    private String type;
+    private LocalDateTime occurredAt;
+    // Already JSON; written as is when the event itself is serialized
+    @JsonRawValue
+    private String payload;
+}
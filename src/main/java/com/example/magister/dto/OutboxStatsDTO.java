@@ -0,0 +1,19 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class OutboxStatsDTO {
+    private boolean publisherEnabled;
+    private long pending;
+    private long failed;
+    // Age of the oldest event not yet published; 0 when the outbox is drained
+    private long oldestPendingAgeMs;
+    // created -> published delay of the most recent batch
+    private long lastBatchMaxLagMs;
+    private long published;
+    private long deliveryFailures;
+    private Map<String, Long> failuresByListener;
+}
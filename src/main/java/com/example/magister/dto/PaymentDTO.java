@@ -20,4 +20,5 @@ public class PaymentDTO {
     private PaymentMethod method;
     private String notes;
     private LocalDateTime createdAt;
+    private Long version;
 }
\ No newline at end of file
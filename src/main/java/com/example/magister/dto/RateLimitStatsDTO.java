@@ -0,0 +1,17 @@
+package com.example.magister.dto;
+
+import com.example.magister.entity.UserRole;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class RateLimitStatsDTO {
+    private boolean enabled;
+    // Buckets currently held in memory, one per (user, route) seen since it was last full
+    private int buckets;
+    private long allowed;
+    private long throttled;
+    private Map<UserRole, Long> throttledByRole;
+    private long evicted;
+}
@@ -0,0 +1,10 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+@Data
+public class RedeemRewardRequest {
+    private Long rewardId;
+    // Group whose coin balance pays for the reward
+    private Long groupId;
+}
@@ -0,0 +1,18 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RedemptionDTO {
+    private Long id;
+    private Long studentId;
+    private String studentName;
+    private Long groupId;
+    private String groupName;
+    private Long rewardId;
+    private String rewardName;
+    private Integer cost;
+    private LocalDateTime redeemedAt;
+}
@@ -0,0 +1,12 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class RevenueBucketDTO {
+    private String key;
+    private String label;
+    private Long paymentCount;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,5 @@
+package com.example.magister.dto;
+
+public enum RevenueGrouping {
+    DAY, MONTH, TEACHER, GROUP, METHOD
+}
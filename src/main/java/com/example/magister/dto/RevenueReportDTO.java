@@ -0,0 +1,16 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class RevenueReportDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private RevenueGrouping groupBy;
+    private Long totalPayments;
+    private BigDecimal totalAmount;
+    private List<RevenueBucketDTO> buckets;
+}
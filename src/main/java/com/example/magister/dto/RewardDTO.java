@@ -0,0 +1,17 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RewardDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private Integer cost;
+    // null for unlimited
+    private Integer stock;
+    private Boolean active;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.example.magister.dto;
+
+import com.example.magister.entity.UserRole;
+import lombok.Data;
+
+@Data
+public class SearchHitDTO {
+    // USER or GROUP
+    private String type;
+    private Long id;
+    // Full name for users, group name for groups
+    private String title;
+    // Email for users, teacher name for groups
+    private String subtitle;
+    private String phone;
+    private UserRole role;
+    private double score;
+}
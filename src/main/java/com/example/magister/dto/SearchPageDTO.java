@@ -0,0 +1,14 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class SearchPageDTO {
+    private String query;
+    private List<SearchHitDTO> items;
+    private int page;
+    private int size;
+    // Typeahead paging: no total count, just whether another page exists
+    private boolean hasMore;
+}
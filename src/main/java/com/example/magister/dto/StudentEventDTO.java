@@ -0,0 +1,19 @@
+package com.example.magister.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentEventDTO {
+    private Long id;
+    private String type;
+    private Long studentId;
+    private Long groupId;
+    private LocalDateTime occurredAt;
+    private Object payload;
+}
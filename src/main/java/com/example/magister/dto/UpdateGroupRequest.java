@@ -3,10 +3,13 @@ package com.example.magister.dto;
 import com.example.magister.entity.GroupStatus;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 public class UpdateGroupRequest {
       private String name;
       private String description;
       private String schedule;
+      private BigDecimal monthlyFee;
       private GroupStatus status;
 }
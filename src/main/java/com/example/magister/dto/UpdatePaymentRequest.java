@@ -12,4 +12,6 @@ public class UpdatePaymentRequest {
     private LocalDateTime paymentDate;
     private PaymentMethod method;
     private String notes;
+    // Version the client last saw; a mismatch is rejected with 409 Conflict
+    private Long version;
 }
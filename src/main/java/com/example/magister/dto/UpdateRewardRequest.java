@@ -0,0 +1,11 @@
+package com.example.magister.dto;
+
+import lombok.Data;
+
+@Data
+public class UpdateRewardRequest {
+    private String name;
+    private String description;
+    private Integer cost;
+    private Boolean active;
+}
@@ -4,17 +4,27 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "attendance")
+@Table(name = "attendance", indexes = {
+        // Covers the group attendance matrix range scan without touching the table
+        @Index(name = "idx_attendance_group_lesson", columnList = "group_id, lesson_date, student_id, status"),
+        @Index(name = "idx_attendance_student_lesson", columnList = "student_id, lesson_date"),
+        // Index-only scan for the admin dashboard's last-30-days count across all branches
+        @Index(name = "idx_attendance_lesson_tenant", columnList = "lesson_date, tenant_id, status")
+})
+@Filter(name = TenantScopedEntity.TENANT_FILTER)
 @Data
+@EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Attendance {
+public class Attendance extends TenantScopedEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
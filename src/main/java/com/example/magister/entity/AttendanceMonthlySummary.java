@@ -0,0 +1,51 @@
+package com.example.magister.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+
+import java.time.LocalDate;
+
+/**
+ * Per-month attendance counts for a (student, group) pair, written by AttendanceArchiveService
+ * when lessons older than the retention window are moved out of the attendance table into
+ * attendance_archive. Summaries add these counts to the live rows instead of reading the archive.
+ */
+@Entity
+@Table(name = "attendance_monthly_summary", uniqueConstraints = @UniqueConstraint(
+        name = "uk_attendance_monthly_summary",
+        columnNames = {"student_id", "group_id", "month"}))
+@Filter(name = TenantScopedEntity.TENANT_FILTER)
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceMonthlySummary extends TenantScopedEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    // First day of the month
+    @Column(nullable = false)
+    private LocalDate month;
+
+    @Column(nullable = false)
+    private Integer presentCount;
+
+    @Column(nullable = false)
+    private Integer absentCount;
+
+    @Column(nullable = false)
+    private Integer lateCount;
+}
@@ -0,0 +1,72 @@
+package com.example.magister.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rolling attendance statistics per (student, group), maintained by AttendanceStatsService
+ * on every mark and update so risk checks never scan attendance history.
+ */
+@Entity
+@Table(name = "attendance_stats", uniqueConstraints = @UniqueConstraint(
+        name = "uk_attendance_stats_student_group",
+        columnNames = {"student_id", "group_id"}),
+        indexes = @Index(name = "idx_attendance_stats_group", columnList = "group_id"))
+@Filter(name = TenantScopedEntity.TENANT_FILTER)
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceStats extends TenantScopedEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @Column(nullable = false)
+    private Integer totalLessons;
+
+    @Column(nullable = false)
+    private Integer absentCount;
+
+    // Consecutive absences ending at the most recent lesson
+    @Column(nullable = false)
+    private Integer absenceStreak;
+
+    // One bit per lesson, most recent in bit 0; a set bit is an absence
+    @Column(nullable = false)
+    private Long recentMask;
+
+    // Lessons and absences among the last app.attendance.risk.window-lessons lessons
+    @Column(nullable = false)
+    private Integer windowLessons;
+
+    @Column(nullable = false)
+    private Integer windowAbsences;
+
+    // Exponentially weighted share of attended lessons (1.0 = always attended)
+    @Column(nullable = false)
+    private Double decayedRate;
+
+    private LocalDateTime lastLessonDate;
+
+    private Long lastAttendanceId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,11 @@
+package com.example.magister.entity;
+
+public enum AuditAction {
+    USER_CREATED, USER_UPDATED, USER_DELETED,
+    GROUP_CREATED, GROUP_UPDATED,
+    STUDENT_ENROLLED, STUDENT_REMOVED,
+    ATTENDANCE_MARKED, ATTENDANCE_UPDATED,
+    PAYMENT_CREATED, PAYMENT_UPDATED, PAYMENT_DELETED,
+    COINS_AWARDED, COINS_REDEEMED,
+    REWARD_CREATED, REWARD_UPDATED, REWARD_RESTOCKED
+}
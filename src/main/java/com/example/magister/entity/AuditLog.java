@@ -0,0 +1,51 @@
+package com.example.magister.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only audit trail. Rows are inserted in JDBC batches by AuditService,
+ * never through the EntityManager; the entity exists for schema generation and queries.
+ */
+@Entity
+@Table(name = "audit_log", indexes = {
+        @Index(name = "idx_audit_log_entity", columnList = "entity_type, entity_id"),
+        @Index(name = "idx_audit_log_actor", columnList = "actor_id")
+})
+@Filter(name = TenantScopedEntity.TENANT_FILTER)
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditLog extends TenantScopedEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private AuditAction action;
+
+    @Column(name = "entity_type", nullable = false, length = 32)
+    private String entityType;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(length = 1000)
+    private String details;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
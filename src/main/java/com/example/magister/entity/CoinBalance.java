@@ -0,0 +1,54 @@
+package com.example.magister.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Coin totals per (student, group), kept in step with the coins ledger by CoinService so
+ * totals and leaderboards are index lookups instead of sums over every award.
+ * CoinLedgerService checks it against the ledger and can rebuild it.
+ */
+@Entity
+@Table(name = "coin_balances", uniqueConstraints = @UniqueConstraint(
+        name = "uk_coin_balances_student_group",
+        columnNames = {"student_id", "group_id"}),
+        indexes = @Index(name = "idx_coin_balances_leaderboard", columnList = "group_id, earned DESC"))
+@Filter(name = TenantScopedEntity.TENANT_FILTER)
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoinBalance extends TenantScopedEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    // Counters are only written by the upserts in CoinBalanceRepository; balance = earned - spent,
+    // and the database refuses any write that would take it below zero
+    @Column(insertable = false, updatable = false, columnDefinition = "bigint not null default 0")
+    private Long earned;
+
+    @Column(insertable = false, updatable = false, columnDefinition = "bigint not null default 0 check (spent >= 0)")
+    private Long spent;
+
+    @Column(insertable = false, updatable = false, columnDefinition = "bigint not null default 0 check (balance >= 0)")
+    private Long balance;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,52 @@
+package com.example.magister.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reward bought with coins: the spending side of the coins ledger. The coins were taken
+ * from the (student, group) balance, so CoinLedgerService checks spent against these rows.
+ */
+@Entity
+@Table(name = "coin_redemptions", indexes = {
+        @Index(name = "idx_coin_redemptions_student", columnList = "student_id, redeemed_at DESC"),
+        @Index(name = "idx_coin_redemptions_reward", columnList = "reward_id, redeemed_at DESC")
+})
+@Filter(name = TenantScopedEntity.TENANT_FILTER)
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoinRedemption extends TenantScopedEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reward_id", nullable = false)
+    private Reward reward;
+
+    // Price at the time of redemption; the reward's cost may change later
+    @Column(nullable = false)
+    private Integer cost;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private LocalDateTime redeemedAt = LocalDateTime.now();
+}
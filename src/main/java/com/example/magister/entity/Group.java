@@ -4,19 +4,24 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "groups")
+@Filter(name = TenantScopedEntity.TENANT_FILTER)
 @Data
+@EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Group {
+public class Group extends TenantScopedEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -32,6 +37,9 @@ public class Group {
 
     private String schedule;
 
+    // Charged once per started month of each enrollment; null means the group is not billed
+    private BigDecimal monthlyFee;
+
     @Enumerated(EnumType.STRING)
     private GroupStatus status = GroupStatus.ACTIVE;
 
@@ -5,17 +5,24 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "group_students")
+@Table(name = "group_students", indexes = {
+        @Index(name = "idx_group_students_balance", columnList = "balance")
+})
+@Filter(name = TenantScopedEntity.TENANT_FILTER)
 @Data
+@EqualsAndHashCode(callSuper = false)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class GroupStudent {
+public class GroupStudent extends TenantScopedEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -35,4 +42,19 @@ public class GroupStudent {
     
     @Enumerated(EnumType.STRING)
     private EnrollmentStatus status = EnrollmentStatus.ACTIVE;
+
+    // Billing state is only written by set-based updates in GroupStudentRepository, so a
+    // stale copy of this entity can never overwrite a concurrent payment's balance change
+    @Column(insertable = false, updatable = false, columnDefinition = "integer not null default 0")
+    private Integer billedMonths;
+
+    @Column(insertable = false, updatable = false, columnDefinition = "numeric(38,2) not null default 0")
+    private BigDecimal chargedAmount;
+
+    @Column(insertable = false, updatable = false, columnDefinition = "numeric(38,2) not null default 0")
+    private BigDecimal paidAmount;
+
+    // chargedAmount - paidAmount; positive means the student owes money
+    @Column(insertable = false, updatable = false, columnDefinition = "numeric(38,2) not null default 0")
+    private BigDecimal balance;
 }
@@ -0,0 +1,51 @@
+package com.example.magister.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated payment totals per (day, teacher, group, method), kept in step with
+ * the payments table by PaymentService so revenue reports never scan individual payments.
+ */
+@Entity
+@Table(name = "payment_rollups", uniqueConstraints = @UniqueConstraint(
+        name = "uk_payment_rollups_bucket",
+        columnNames = {"payment_day", "teacher_id", "group_id", "method"}))
+@Filter(name = TenantScopedEntity.TENANT_FILTER)
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentRollup extends TenantScopedEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payment_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "teacher_id", nullable = false)
+    private Long teacherId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentMethod method;
+
+    @Column(nullable = false)
+    private Long paymentCount;
+
+    @Column(nullable = false)
+    private BigDecimal totalAmount;
+}
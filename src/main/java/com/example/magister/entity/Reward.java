@@ -0,0 +1,50 @@
+package com.example.magister.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Filter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An item of a branch's coin shop. Students pay cost coins from one of their group balances;
+ * see RewardService.
+ */
+@Entity
+@Table(name = "rewards")
+@Filter(name = TenantScopedEntity.TENANT_FILTER)
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Reward extends TenantScopedEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    private String description;
+
+    @Column(nullable = false)
+    private Integer cost;
+
+    // Units left, null for unlimited. Set on insert, then only changed by the conditional
+    // updates in RewardRepository, so saving an edited reward cannot undo concurrent redemptions
+    @Column(updatable = false, columnDefinition = "integer check (stock >= 0)")
+    private Integer stock;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,26 @@
+package com.example.magister.entity;
+
+import com.example.magister.exception.ResourceNotFoundException;
+import com.example.magister.security.TenantContext;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+
+public class TenantEntityListener {
+
+    @PrePersist
+    public void assignTenant(TenantScopedEntity entity) {
+        if (entity.getTenantId() == null) {
+            entity.setTenantId(TenantContext.currentOrDefault());
+        }
+    }
+
+    // findById and lazy to-one loads bypass Hibernate filters; a row of another branch
+    // is reported exactly like a missing one
+    @PostLoad
+    public void checkTenant(TenantScopedEntity entity) {
+        Long tenantId = TenantContext.getTenantId();
+        if (tenantId != null && !tenantId.equals(entity.getTenantId())) {
+            throw new ResourceNotFoundException(entity.getClass().getSimpleName(), "tenant", tenantId);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.magister.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
+
+/**
+ * Base for every table that belongs to a branch. Subclasses carry
+ * {@code @Filter(name = TENANT_FILTER)}; the filter is switched on for each transaction
+ * by TenantFilterTransactionManager, so JPQL and derived queries only see the current
+ * branch. Loads by id are not filtered by Hibernate and are checked by TenantEntityListener
+ * instead. Native SQL is not filtered at all and must set or match tenant_id itself.
+ */
+@MappedSuperclass
+@EntityListeners(TenantEntityListener.class)
+@FilterDef(name = TenantScopedEntity.TENANT_FILTER,
+        parameters = @ParamDef(name = TenantScopedEntity.TENANT_PARAM, type = Long.class),
+        defaultCondition = "tenant_id = :" + TenantScopedEntity.TENANT_PARAM)
+@Getter
+@Setter
+public abstract class TenantScopedEntity {
+
+    public static final String TENANT_FILTER = "tenantFilter";
+    public static final String TENANT_PARAM = "tenantId";
+
+    @Column(name = "tenant_id", nullable = false, updatable = false,
+            columnDefinition = "bigint not null default 1")
+    private Long tenantId;
+}
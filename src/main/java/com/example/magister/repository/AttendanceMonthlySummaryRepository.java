@@ -0,0 +1,57 @@
+package com.example.magister.repository;
+
+import com.example.magister.entity.AttendanceMonthlySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AttendanceMonthlySummaryRepository extends JpaRepository<AttendanceMonthlySummary, Long> {
+
+    // One statement, so a lesson marked while the move runs is either archived and counted or
+    // left in place for the next run, never lost. Lessons marked late for an already archived
+    // month are added to that month's summary.
+    @Modifying
+    @Query(value = "WITH moved AS (DELETE FROM attendance WHERE lesson_date < :cutoff RETURNING *), " +
+            "archived AS (INSERT INTO attendance_archive (id, tenant_id, student_id, group_id, marked_by_id, " +
+            "lesson_date, status, notes, created_at, archived_at) " +
+            "SELECT id, tenant_id, student_id, group_id, marked_by_id, lesson_date, status, notes, created_at, " +
+            "LOCALTIMESTAMP FROM moved) " +
+            "INSERT INTO attendance_monthly_summary (tenant_id, student_id, group_id, month, " +
+            "present_count, absent_count, late_count) " +
+            "SELECT MIN(tenant_id), student_id, group_id, CAST(date_trunc('month', lesson_date) AS DATE), " +
+            "COUNT(*) FILTER (WHERE status = 'PRESENT'), COUNT(*) FILTER (WHERE status = 'ABSENT'), " +
+            "COUNT(*) FILTER (WHERE status = 'LATE') FROM moved GROUP BY 2, 3, 4 " +
+            "ON CONFLICT (student_id, group_id, month) DO UPDATE SET " +
+            "present_count = attendance_monthly_summary.present_count + EXCLUDED.present_count, " +
+            "absent_count = attendance_monthly_summary.absent_count + EXCLUDED.absent_count, " +
+            "late_count = attendance_monthly_summary.late_count + EXCLUDED.late_count",
+            nativeQuery = true)
+    int archiveLessonsBefore(LocalDateTime cutoff);
+
+    @Query("SELECT COALESCE(SUM(s.presentCount), 0), COALESCE(SUM(s.absentCount), 0), " +
+            "COALESCE(SUM(s.lateCount), 0) FROM AttendanceMonthlySummary s WHERE s.studentId = :studentId")
+    List<Object[]> sumByStudentId(Long studentId);
+
+    @Query("SELECT COALESCE(SUM(s.presentCount + s.absentCount + s.lateCount), 0), COALESCE(SUM(s.absentCount), 0) " +
+            "FROM AttendanceMonthlySummary s WHERE s.studentId = :studentId AND s.groupId = :groupId")
+    List<Object[]> sumByStudentIdAndGroupId(Long studentId, Long groupId);
+
+    @Modifying
+    @Query("DELETE FROM AttendanceMonthlySummary s WHERE s.studentId = :studentId")
+    void deleteByStudentId(Long studentId);
+
+    @Modifying
+    @Query("DELETE FROM AttendanceMonthlySummary s WHERE s.groupId IN " +
+            "(SELECT g.id FROM Group g WHERE g.teacher.id = :teacherId)")
+    void deleteByGroupTeacherId(Long teacherId);
+
+    @Modifying
+    @Query(value = "DELETE FROM attendance_archive WHERE student_id = :userId OR marked_by_id = :userId",
+            nativeQuery = true)
+    void deleteArchivedLessonsOfUser(Long userId);
+}
@@ -19,6 +19,26 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     @Query("SELECT a FROM Attendance a WHERE a.student.id = :studentId AND a.group.id = :groupId")
     List<Attendance> findByStudentIdAndGroupId(Long studentId, Long groupId);
 
+    @Query("SELECT a FROM Attendance a WHERE a.student.id = :studentId AND a.group.id = :groupId " +
+            "ORDER BY a.lessonDate ASC, a.id ASC")
+    List<Attendance> findHistory(Long studentId, Long groupId);
+
+    @Query("SELECT DISTINCT a.student.id, a.group.id FROM Attendance a")
+    List<Object[]> findStudentGroupPairs();
+
+    @Query("SELECT a.student.id, a.lessonDate, a.status FROM Attendance a " +
+            "WHERE a.group.id = :groupId AND a.lessonDate >= :start AND a.lessonDate < :end " +
+            "ORDER BY a.lessonDate")
+    List<Object[]> findCellsByGroupAndRange(Long groupId, LocalDateTime start, LocalDateTime end);
+
+    // The lesson_date bounds let a partitioned attendance table skip months outside the range
+    @Query("SELECT a FROM Attendance a WHERE a.student.id = :studentId " +
+            "AND a.lessonDate >= :start AND a.lessonDate < :end ORDER BY a.lessonDate")
+    List<Attendance> findByStudentIdAndRange(Long studentId, LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT a.status, COUNT(a) FROM Attendance a WHERE a.student.id = :studentId GROUP BY a.status")
+    List<Object[]> countByStatusForStudent(Long studentId);
+
     void deleteByStudentId(Long studentId);
 
     void deleteByMarkedById(Long markedById);
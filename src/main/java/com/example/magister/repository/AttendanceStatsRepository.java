@@ -0,0 +1,54 @@
+package com.example.magister.repository;
+
+import com.example.magister.entity.AttendanceStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttendanceStatsRepository extends JpaRepository<AttendanceStats, Long> {
+
+    // Creates the row on first use without racing a concurrent first mark for the same pair
+    @Modifying
+    @Query(value = "INSERT INTO attendance_stats (tenant_id, student_id, group_id, total_lessons, absent_count, " +
+            "absence_streak, recent_mask, window_lessons, window_absences, decayed_rate, updated_at) " +
+            "SELECT g.tenant_id, :studentId, g.id, 0, 0, 0, 0, 0, 0, 1.0, LOCALTIMESTAMP FROM groups g WHERE g.id = :groupId " +
+            "ON CONFLICT (student_id, group_id) DO NOTHING",
+            nativeQuery = true)
+    void ensureExists(Long studentId, Long groupId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AttendanceStats s WHERE s.student.id = :studentId AND s.group.id = :groupId")
+    Optional<AttendanceStats> findForUpdate(Long studentId, Long groupId);
+
+    @Query("SELECT s FROM AttendanceStats s JOIN FETCH s.student JOIN FETCH s.group g " +
+            "WHERE g.teacher.id = :teacherId " +
+            "AND EXISTS (SELECT 1 FROM GroupStudent gs WHERE gs.group = g AND gs.student = s.student " +
+            "AND gs.status = com.example.magister.entity.EnrollmentStatus.ACTIVE) " +
+            "AND (s.absenceStreak >= :absenceStreak " +
+            "OR (s.windowLessons >= :minWindowLessons " +
+            "AND s.windowLessons - s.windowAbsences < :minRate * s.windowLessons)) " +
+            "ORDER BY s.decayedRate ASC, s.absenceStreak DESC")
+    List<AttendanceStats> findAtRiskByTeacher(Long teacherId, int absenceStreak, int minWindowLessons, double minRate);
+
+    @Query("SELECT COUNT(s) FROM AttendanceStats s")
+    long countAll();
+
+    @Modifying
+    @Query("DELETE FROM AttendanceStats s WHERE s.student.id = :studentId")
+    void deleteByStudentId(Long studentId);
+
+    @Modifying
+    @Query("DELETE FROM AttendanceStats s WHERE s.group.id IN (SELECT g.id FROM Group g WHERE g.teacher.id = :teacherId)")
+    void deleteByGroupTeacherId(Long teacherId);
+
+    @Modifying
+    @Query("DELETE FROM AttendanceStats s")
+    void deleteAllStats();
+}
@@ -0,0 +1,21 @@
+package com.example.magister.repository;
+
+import com.example.magister.entity.AuditLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+
+    // Keyset pagination: newest first, strictly below the cursor id
+    @Query("SELECT a FROM AuditLog a WHERE a.id < :beforeId " +
+            "AND (:entityType IS NULL OR a.entityType = :entityType) " +
+            "AND (:entityId IS NULL OR a.entityId = :entityId) " +
+            "AND (:actorId IS NULL OR a.actorId = :actorId) " +
+            "ORDER BY a.id DESC")
+    List<AuditLog> findPage(Long beforeId, String entityType, Long entityId, Long actorId, Pageable pageable);
+}
@@ -0,0 +1,107 @@
+package com.example.magister.repository;
+
+import com.example.magister.entity.CoinBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CoinBalanceRepository extends JpaRepository<CoinBalance, Long> {
+
+    // Creates the pair's row on its first award; concurrent awards to the same pair queue on the row
+    @Modifying
+    @Query(value = "INSERT INTO coin_balances (tenant_id, student_id, group_id, earned, spent, balance, updated_at) " +
+            "VALUES (:tenantId, :studentId, :groupId, :amount, 0, :amount, LOCALTIMESTAMP) " +
+            "ON CONFLICT (student_id, group_id) DO UPDATE SET " +
+            "earned = coin_balances.earned + EXCLUDED.earned, " +
+            "balance = coin_balances.balance + EXCLUDED.balance, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    void applyAward(Long tenantId, Long studentId, Long groupId, long amount);
+
+    // Conditional decrement instead of read-then-write: 0 rows when the balance cannot cover the
+    // cost, so two redemptions racing for the last coins cannot both succeed
+    @Modifying
+    @Query(value = "UPDATE coin_balances SET balance = balance - :cost, spent = spent + :cost, " +
+            "updated_at = LOCALTIMESTAMP " +
+            "WHERE student_id = :studentId AND group_id = :groupId AND balance >= :cost",
+            nativeQuery = true)
+    int spend(Long studentId, Long groupId, long cost);
+
+    @Query("SELECT COALESCE(SUM(b.earned), 0) FROM CoinBalance b WHERE b.student.id = :studentId")
+    Long getTotalEarnedByStudent(Long studentId);
+
+    @Query("SELECT COALESCE(SUM(b.balance), 0) FROM CoinBalance b WHERE b.student.id = :studentId")
+    Long getTotalBalanceByStudent(Long studentId);
+
+    @Query("SELECT b FROM CoinBalance b JOIN FETCH b.group WHERE b.student.id = :studentId")
+    List<CoinBalance> findWithGroupByStudentId(Long studentId);
+
+    @Query("SELECT b.student.id, b.student.fullName, b.earned FROM CoinBalance b " +
+            "WHERE b.group.id = :groupId ORDER BY b.earned DESC")
+    List<Object[]> getLeaderboardByGroup(Long groupId);
+
+    @Modifying
+    @Query("DELETE FROM CoinBalance b WHERE b.student.id = :studentId")
+    void deleteByStudentId(Long studentId);
+
+    @Modifying
+    @Query("DELETE FROM CoinBalance b WHERE b.group.id IN (SELECT g.id FROM Group g WHERE g.teacher.id = :teacherId)")
+    void deleteByGroupTeacherId(Long teacherId);
+
+    // Used before the coins a teacher awarded are bulk-deleted (user cascade). Revoked coins come
+    // out of the balance first; whatever the balance cannot cover is taken off spent, so the
+    // balance never goes negative and earned = spent + balance still holds
+    @Modifying
+    @Query(value = "UPDATE coin_balances b SET " +
+            "earned = b.earned - d.amt, " +
+            "balance = GREATEST(b.balance - d.amt, 0), " +
+            "spent = b.earned - d.amt - GREATEST(b.balance - d.amt, 0), " +
+            "updated_at = LOCALTIMESTAMP " +
+            "FROM (SELECT student_id, group_id, SUM(amount) AS amt FROM coins WHERE teacher_id = :teacherId " +
+            "GROUP BY student_id, group_id) d " +
+            "WHERE b.student_id = d.student_id AND b.group_id = d.group_id",
+            nativeQuery = true)
+    void subtractCoinsOfTeacher(Long teacherId);
+
+    // Pairs whose earned total differs from the coins ledger, whose spent total differs from the
+    // redemptions, or whose balance does not add up; one statement, so awards and redemptions
+    // committing meanwhile cannot show up as false mismatches. Coins revoked by a teacher
+    // cascade can leave less earned than was redeemed, so spent is compared with the smaller
+    // of the two, as subtractCoinsOfTeacher and rebuildFromLedger leave it
+    @Query(value = "SELECT COALESCE(b.student_id, c.student_id), COALESCE(b.group_id, c.group_id), " +
+            "b.earned, b.spent, b.balance, COALESCE(c.total, 0), COALESCE(r.total, 0) " +
+            "FROM coin_balances b FULL JOIN (SELECT student_id, group_id, SUM(amount) AS total FROM coins " +
+            "GROUP BY student_id, group_id) c ON c.student_id = b.student_id AND c.group_id = b.group_id " +
+            "LEFT JOIN (SELECT student_id, group_id, SUM(cost) AS total FROM coin_redemptions " +
+            "GROUP BY student_id, group_id) r ON r.student_id = COALESCE(b.student_id, c.student_id) " +
+            "AND r.group_id = COALESCE(b.group_id, c.group_id) " +
+            "WHERE COALESCE(b.earned, 0) <> COALESCE(c.total, 0) OR b.balance <> b.earned - b.spent " +
+            "OR COALESCE(b.spent, 0) <> LEAST(COALESCE(r.total, 0), COALESCE(c.total, 0)) " +
+            "ORDER BY 1, 2",
+            nativeQuery = true)
+    List<Object[]> findLedgerMismatches();
+
+    // Held until commit so concurrent awards wait for a rebuild instead of racing it
+    @Modifying
+    @Query(value = "LOCK TABLE coin_balances IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM coin_balances", nativeQuery = true)
+    void deleteAllBalances();
+
+    @Modifying
+    @Query(value = "INSERT INTO coin_balances (tenant_id, student_id, group_id, earned, spent, balance, updated_at) " +
+            "SELECT c.tenant_id, c.student_id, c.group_id, c.total, " +
+            "LEAST(COALESCE(r.total, 0), c.total), c.total - LEAST(COALESCE(r.total, 0), c.total), LOCALTIMESTAMP " +
+            "FROM (SELECT MIN(tenant_id) AS tenant_id, student_id, group_id, SUM(amount) AS total FROM coins " +
+            "GROUP BY student_id, group_id) c " +
+            "LEFT JOIN (SELECT student_id, group_id, SUM(cost) AS total FROM coin_redemptions " +
+            "GROUP BY student_id, group_id) r ON r.student_id = c.student_id AND r.group_id = c.group_id",
+            nativeQuery = true)
+    void rebuildFromLedger();
+}
@@ -0,0 +1,29 @@
+package com.example.magister.repository;
+
+import com.example.magister.entity.CoinRedemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CoinRedemptionRepository extends JpaRepository<CoinRedemption, Long> {
+
+    @Query("SELECT r FROM CoinRedemption r JOIN FETCH r.group JOIN FETCH r.reward " +
+            "WHERE r.student.id = :studentId ORDER BY r.redeemedAt DESC")
+    List<CoinRedemption> findByStudentId(Long studentId);
+
+    @Query("SELECT r FROM CoinRedemption r JOIN FETCH r.student JOIN FETCH r.group " +
+            "WHERE r.reward.id = :rewardId ORDER BY r.redeemedAt DESC")
+    List<CoinRedemption> findByRewardId(Long rewardId);
+
+    @Modifying
+    @Query("DELETE FROM CoinRedemption r WHERE r.student.id = :studentId")
+    void deleteByStudentId(Long studentId);
+
+    @Modifying
+    @Query("DELETE FROM CoinRedemption r WHERE r.group.id IN (SELECT g.id FROM Group g WHERE g.teacher.id = :teacherId)")
+    void deleteByGroupTeacherId(Long teacherId);
+}
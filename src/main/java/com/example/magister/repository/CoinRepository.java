@@ -2,7 +2,6 @@ package com.example.magister.repository;
 
 import com.example.magister.entity.Coin;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,11 +14,8 @@ public interface CoinRepository extends JpaRepository<Coin, Long> {
 
     List<Coin> findByStudentIdAndGroupId(Long studentId, Long groupId);
 
-    @Query("SELECT SUM(c.amount) FROM Coin c WHERE c.student.id = :studentId")
-    Integer getTotalCoinsByStudent(Long studentId);
-
-    @Query("SELECT c.student, SUM(c.amount) as total FROM Coin c WHERE c.group.id = :groupId GROUP BY c.student ORDER BY total DESC")
-    List<Object[]> getLeaderboardByGroup(Long groupId);
+    // Totals and leaderboards come from CoinBalanceRepository
+    List<Coin> findTop10ByStudentIdOrderByAwardedDateDesc(Long studentId);
 
     void deleteByStudentId(Long studentId);
 
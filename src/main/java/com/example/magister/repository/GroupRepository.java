@@ -2,14 +2,23 @@ package com.example.magister.repository;
 
 import com.example.magister.entity.Group;
 import com.example.magister.entity.GroupStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GroupRepository extends JpaRepository<Group, Long> {
     List<Group> findByTeacherId(Long teacherId);
 
     List<Group> findByStatus(GroupStatus status);
-}
\ No newline at end of file
+
+    // Serializes batch enrollment changes to the same group
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Group g WHERE g.id = :id")
+    Optional<Group> findForUpdate(Long id);
+}
@@ -2,10 +2,15 @@ package com.example.magister.repository;
 
 import com.example.magister.entity.EnrollmentStatus;
 import com.example.magister.entity.GroupStudent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,5 +35,112 @@ public interface GroupStudentRepository extends JpaRepository<GroupStudent, Long
     @Query("SELECT COUNT(gs) FROM GroupStudent gs WHERE gs.group.id = :groupId AND gs.status = :status")
     Integer countByGroupIdAndStatus(Long groupId, EnrollmentStatus status);
 
+    @Query("SELECT gs.student.id, gs.student.fullName FROM GroupStudent gs " +
+            "WHERE gs.group.id = :groupId AND gs.status = :status ORDER BY gs.student.fullName")
+    List<Object[]> findStudentNamesByGroupIdAndStatus(Long groupId, EnrollmentStatus status);
+
     void deleteByStudentId(Long studentId);
+
+    // Batch enrollment: each requested id with its role and current enrollment in the group
+    // (null when it has none); ids that do not exist in this branch are simply missing
+    @Query("SELECT u.id, u.role, gs.status FROM User u " +
+            "LEFT JOIN GroupStudent gs ON gs.student = u AND gs.group.id = :groupId " +
+            "WHERE u.id IN :studentIds")
+    List<Object[]> findEnrollmentCandidates(Long groupId, Collection<Long> studentIds);
+
+    // Transfer: every student active in the source group with their enrollment status in the
+    // target group (null when they have none)
+    @Query("SELECT s.student.id, t.status FROM GroupStudent s " +
+            "LEFT JOIN GroupStudent t ON t.student = s.student AND t.group.id = :toGroupId " +
+            "WHERE s.group.id = :fromGroupId AND s.status = com.example.magister.entity.EnrollmentStatus.ACTIVE " +
+            "ORDER BY s.student.id")
+    List<Object[]> findTransferCandidates(Long fromGroupId, Long toGroupId);
+
+    // The batch statements below return (enrollment id, student id) of every row they wrote,
+    // so each change can be audited against its enrollment. They are plain queries rather than
+    // @Modifying ones because of the result set; Hibernate flushes the session before running
+    // a native query, as @Modifying(flushAutomatically = true) did.
+
+    // Enrolls every listed student that exists in the group's branch and has never been
+    // enrolled in the group; billing columns take their defaults and are accrued afterwards
+    @Query(value = "INSERT INTO group_students (tenant_id, group_id, student_id, enrolled_at, status) " +
+            "SELECT g.tenant_id, g.id, u.id, LOCALTIMESTAMP, 'ACTIVE' " +
+            "FROM groups g JOIN users u ON u.tenant_id = g.tenant_id " +
+            "WHERE g.id = :groupId AND u.id IN (:studentIds) AND u.role = 'STUDENT' " +
+            "AND NOT EXISTS (SELECT 1 FROM group_students s WHERE s.group_id = g.id AND s.student_id = u.id) " +
+            "RETURNING id, student_id",
+            nativeQuery = true)
+    List<Object[]> enrollAll(Long groupId, Collection<Long> studentIds);
+
+    @Query(value = "UPDATE group_students SET status = 'DROPPED', completed_at = LOCALTIMESTAMP " +
+            "WHERE group_id = :groupId AND student_id IN (:studentIds) AND status <> 'DROPPED' " +
+            "RETURNING id, student_id",
+            nativeQuery = true)
+    List<Object[]> dropAll(Long groupId, Collection<Long> studentIds);
+
+    // Enrolls the source group's active students in the target group, skipping anyone who
+    // already has an enrollment there
+    @Query(value = "INSERT INTO group_students (tenant_id, group_id, student_id, enrolled_at, status) " +
+            "SELECT g.tenant_id, g.id, s.student_id, LOCALTIMESTAMP, 'ACTIVE' " +
+            "FROM group_students s JOIN groups g ON g.id = :toGroupId " +
+            "WHERE s.group_id = :fromGroupId AND s.status = 'ACTIVE' " +
+            "AND NOT EXISTS (SELECT 1 FROM group_students t WHERE t.group_id = g.id AND t.student_id = s.student_id) " +
+            "RETURNING id, student_id",
+            nativeQuery = true)
+    List<Object[]> copyActiveEnrollments(Long fromGroupId, Long toGroupId);
+
+    // Drops the source group's active students that are now active in the target group
+    @Query(value = "UPDATE group_students s SET status = 'DROPPED', completed_at = LOCALTIMESTAMP " +
+            "WHERE s.group_id = :fromGroupId AND s.status = 'ACTIVE' " +
+            "AND EXISTS (SELECT 1 FROM group_students t WHERE t.group_id = :toGroupId " +
+            "AND t.student_id = s.student_id AND t.status = 'ACTIVE') " +
+            "RETURNING s.id, s.student_id",
+            nativeQuery = true)
+    List<Object[]> dropTransferred(Long fromGroupId, Long toGroupId);
+
+    // Bills every started month of each enrollment (up to completedAt) that has not been billed yet.
+    // Flushes first so a just-saved enrollment or fee change is visible to the statement.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE group_students gs SET " +
+            "billed_months = d.due, " +
+            "charged_amount = gs.charged_amount + (d.due - gs.billed_months) * d.fee, " +
+            "balance = gs.balance + (d.due - gs.billed_months) * d.fee " +
+            "FROM (SELECT s.id, g.monthly_fee AS fee, CAST(" +
+            "EXTRACT(YEAR FROM age(COALESCE(s.completed_at, LOCALTIMESTAMP), s.enrolled_at)) * 12 + " +
+            "EXTRACT(MONTH FROM age(COALESCE(s.completed_at, LOCALTIMESTAMP), s.enrolled_at)) AS integer) + 1 AS due " +
+            "FROM group_students s JOIN groups g ON g.id = s.group_id " +
+            "WHERE g.monthly_fee IS NOT NULL " +
+            "AND (CAST(:groupId AS bigint) IS NULL OR s.group_id = :groupId)) d " +
+            "WHERE gs.id = d.id AND d.due > gs.billed_months",
+            nativeQuery = true)
+    int accrueCharges(Long groupId);
+
+    @Modifying
+    @Query(value = "UPDATE group_students SET paid_amount = paid_amount + :amount, balance = balance - :amount " +
+            "WHERE group_id = :groupId AND student_id = :studentId",
+            nativeQuery = true)
+    void applyPayment(Long groupId, Long studentId, BigDecimal amount);
+
+    // Resets billing so the next accrual re-bills every month at the current fee
+    @Modifying
+    @Query(value = "UPDATE group_students gs SET billed_months = 0, charged_amount = 0, " +
+            "paid_amount = p.total, balance = -p.total " +
+            "FROM (SELECT s.id, COALESCE(SUM(pay.amount), 0) AS total FROM group_students s " +
+            "LEFT JOIN payments pay ON pay.group_id = s.group_id AND pay.student_id = s.student_id " +
+            "GROUP BY s.id) p " +
+            "WHERE gs.id = p.id",
+            nativeQuery = true)
+    void resetBalancesFromPayments();
+
+    @Query(value = "SELECT gs FROM GroupStudent gs JOIN FETCH gs.student JOIN FETCH gs.group " +
+            "WHERE gs.balance > :minBalance " +
+            "AND (:groupId IS NULL OR gs.group.id = :groupId) " +
+            "AND (:status IS NULL OR gs.status = :status)",
+            countQuery = "SELECT COUNT(gs) FROM GroupStudent gs WHERE gs.balance > :minBalance " +
+                    "AND (:groupId IS NULL OR gs.group.id = :groupId) " +
+                    "AND (:status IS NULL OR gs.status = :status)")
+    Page<GroupStudent> findDebtors(BigDecimal minBalance, Long groupId, EnrollmentStatus status, Pageable pageable);
+
+    @Query("SELECT gs FROM GroupStudent gs JOIN FETCH gs.group WHERE gs.student.id = :studentId")
+    List<GroupStudent> findWithGroupByStudentId(Long studentId);
 }
\ No newline at end of file
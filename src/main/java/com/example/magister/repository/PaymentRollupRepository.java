@@ -0,0 +1,72 @@
+package com.example.magister.repository;
+
+import com.example.magister.entity.PaymentRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PaymentRollupRepository extends JpaRepository<PaymentRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO payment_rollups (tenant_id, payment_day, teacher_id, group_id, method, payment_count, total_amount) " +
+            "VALUES (:tenantId, :day, :teacherId, :groupId, :method, :countDelta, :amountDelta) " +
+            "ON CONFLICT (payment_day, teacher_id, group_id, method) DO UPDATE SET " +
+            "payment_count = payment_rollups.payment_count + EXCLUDED.payment_count, " +
+            "total_amount = payment_rollups.total_amount + EXCLUDED.total_amount",
+            nativeQuery = true)
+    void applyDelta(Long tenantId, LocalDate day, Long teacherId, Long groupId, String method, long countDelta, BigDecimal amountDelta);
+
+    // Used before bulk payment deletes (user cascade), which bypass the per-payment hooks
+    @Modifying
+    @Query(value = "UPDATE payment_rollups r SET " +
+            "payment_count = r.payment_count - d.cnt, total_amount = r.total_amount - d.amt " +
+            "FROM (SELECT CAST(p.payment_date AS DATE) AS day, p.teacher_id, p.group_id, p.method, " +
+            "COUNT(*) AS cnt, SUM(p.amount) AS amt FROM payments p WHERE p.student_id = :studentId " +
+            "GROUP BY 1, 2, 3, 4) d " +
+            "WHERE r.payment_day = d.day AND r.teacher_id = d.teacher_id AND r.group_id = d.group_id " +
+            "AND r.method = d.method",
+            nativeQuery = true)
+    void subtractPaymentsOfStudent(Long studentId);
+
+    @Modifying
+    @Query(value = "UPDATE payment_rollups r SET " +
+            "payment_count = r.payment_count - d.cnt, total_amount = r.total_amount - d.amt " +
+            "FROM (SELECT CAST(p.payment_date AS DATE) AS day, p.teacher_id, p.group_id, p.method, " +
+            "COUNT(*) AS cnt, SUM(p.amount) AS amt FROM payments p WHERE p.teacher_id = :teacherId " +
+            "GROUP BY 1, 2, 3, 4) d " +
+            "WHERE r.payment_day = d.day AND r.teacher_id = d.teacher_id AND r.group_id = d.group_id " +
+            "AND r.method = d.method",
+            nativeQuery = true)
+    void subtractPaymentsOfTeacher(Long teacherId);
+
+    // Held until commit so concurrent payment writes wait for a rebuild instead of racing it
+    @Modifying
+    @Query(value = "LOCK TABLE payment_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM payment_rollups", nativeQuery = true)
+    void deleteAllRollups();
+
+    @Modifying
+    @Query(value = "INSERT INTO payment_rollups (tenant_id, payment_day, teacher_id, group_id, method, payment_count, total_amount) " +
+            "SELECT MIN(tenant_id), CAST(payment_date AS DATE), teacher_id, group_id, method, COUNT(*), SUM(amount) " +
+            "FROM payments GROUP BY 2, 3, 4, 5",
+            nativeQuery = true)
+    void rebuildFromPayments();
+
+    @Query("SELECT r FROM PaymentRollup r WHERE r.day BETWEEN :from AND :to " +
+            "AND (:teacherId IS NULL OR r.teacherId = :teacherId) " +
+            "AND (:groupId IS NULL OR r.groupId = :groupId)")
+    List<PaymentRollup> findInRange(LocalDate from, LocalDate to, Long teacherId, Long groupId);
+
+    @Query("SELECT COALESCE(SUM(r.paymentCount), 0), COALESCE(SUM(r.totalAmount), 0) " +
+            "FROM PaymentRollup r WHERE r.teacherId = :teacherId")
+    List<Object[]> getTotalsByTeacher(Long teacherId);
+}
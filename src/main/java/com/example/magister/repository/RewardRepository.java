@@ -0,0 +1,32 @@
+package com.example.magister.repository;
+
+import com.example.magister.entity.Reward;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RewardRepository extends JpaRepository<Reward, Long> {
+
+    List<Reward> findByActiveTrueOrderByCostAsc();
+
+    List<Reward> findAllByOrderByCreatedAtDesc();
+
+    // Takes one unit in a single statement: 0 rows when the reward is sold out or withdrawn.
+    // Concurrent redemptions queue on the row lock and re-check the condition, so the stock
+    // can reach zero but never go past it
+    @Modifying
+    @Query(value = "UPDATE rewards SET stock = stock - 1 " +
+            "WHERE id = :rewardId AND active AND (stock IS NULL OR stock > 0)",
+            nativeQuery = true)
+    int takeOne(Long rewardId);
+
+    // Clears the persistence context so the reward is read again with its new stock
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE rewards SET stock = stock + :quantity WHERE id = :rewardId AND stock IS NOT NULL",
+            nativeQuery = true)
+    int addStock(Long rewardId, int quantity);
+}
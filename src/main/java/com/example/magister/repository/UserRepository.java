@@ -12,5 +12,44 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     List<User> findByRole(UserRole role);
+
+    // Emails are unique across all branches, so this check must not be tenant-filtered
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM users WHERE email = :email)", nativeQuery = true)
     boolean existsByEmail(String email);
+
+    /**
+     * Ranked typeahead over users (full name, email, phone digits) and groups (name), served by
+     * the trigram and prefix indexes created in data.sql. Prefix matches rank above matches
+     * inside a word; :fuzzy enables substring matching and is only set for queries of three or
+     * more characters, below which trigram indexes cannot help. Native SQL is not tenant
+     * filtered, so the branch is passed explicitly.
+     */
+    @Query(value = "SELECT * FROM (" +
+            "SELECT 'USER' AS type, u.id, u.full_name AS title, u.email AS subtitle, u.phone, u.role, " +
+            "CASE WHEN lower(u.full_name) LIKE :prefix THEN 3.0 WHEN lower(u.email) LIKE :prefix THEN 2.5 " +
+            "WHEN ' ' || lower(u.full_name) LIKE :wordPrefix THEN 2.0 ELSE 1.0 END " +
+            "+ word_similarity(:q, lower(u.full_name)) AS score " +
+            "FROM users u " +
+            "WHERE :includeUsers " +
+            "AND (CAST(:tenantId AS bigint) IS NULL OR u.tenant_id = :tenantId) " +
+            "AND (CAST(:role AS varchar) IS NULL OR u.role = :role) " +
+            "AND (CAST(:teacherId AS bigint) IS NULL OR EXISTS (SELECT 1 FROM group_students gs " +
+            "JOIN groups tg ON tg.id = gs.group_id WHERE gs.student_id = u.id AND tg.teacher_id = :teacherId)) " +
+            "AND (lower(u.full_name) LIKE :prefix OR lower(u.email) LIKE :prefix " +
+            "OR (:fuzzy AND (lower(u.full_name) LIKE :contains OR lower(u.email) LIKE :contains)) " +
+            "OR (CAST(:digits AS varchar) IS NOT NULL AND regexp_replace(u.phone, '[^0-9]', '', 'g') LIKE :digits)) " +
+            "UNION ALL " +
+            "SELECT 'GROUP', g.id, g.name, t.full_name, NULL, NULL, " +
+            "CASE WHEN lower(g.name) LIKE :prefix THEN 3.0 WHEN ' ' || lower(g.name) LIKE :wordPrefix THEN 2.0 " +
+            "ELSE 1.0 END + word_similarity(:q, lower(g.name)) " +
+            "FROM groups g JOIN users t ON t.id = g.teacher_id " +
+            "WHERE :includeGroups " +
+            "AND (CAST(:tenantId AS bigint) IS NULL OR g.tenant_id = :tenantId) " +
+            "AND (CAST(:teacherId AS bigint) IS NULL OR g.teacher_id = :teacherId) " +
+            "AND (lower(g.name) LIKE :prefix OR (:fuzzy AND lower(g.name) LIKE :contains))" +
+            ") hits ORDER BY score DESC, title, id LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Object[]> searchDirectory(String q, String prefix, String wordPrefix, String contains, String digits,
+                                   boolean fuzzy, boolean includeUsers, boolean includeGroups,
+                                   Long tenantId, String role, Long teacherId, int limit, int offset);
 }
@@ -0,0 +1,29 @@
+package com.example.magister.security;
+
+import com.example.magister.exception.UnauthorizedException;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Fills controller parameters of type MagisterPrincipal from the verified JWT.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == MagisterPrincipal.class;
+    }
+
+    @Override
+    public MagisterPrincipal resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                             NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        MagisterPrincipal principal = MagisterPrincipal.current();
+        if (principal == null) {
+            throw new UnauthorizedException("Authentication required");
+        }
+        return principal;
+    }
+}
@@ -1,9 +1,9 @@
 package com.example.magister.security;
 
+import com.example.magister.entity.UserRole;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import java.security.Key;
 import java.util.Date;
@@ -13,66 +13,51 @@ import java.util.Map;
 @Component
 public class JwtTokenProvider {
     
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Long expiration;
+    private final Key signingKey;
+    private final JwtParser parser;
     
-    @Value("${jwt.expiration}")
-    private Long expiration;
-    
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public JwtTokenProvider(@Value("${jwt.secret}") String secret,
+                            @Value("${jwt.expiration}") Long expiration) {
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
     
-    public String generateToken(String email, Long userId, String role) {
+    public String generateToken(String email, Long userId, String role, Long tenantId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("role", role);
+        claims.put("tenantId", tenantId);
         
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
-    public String getEmailFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
-    
-    public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("userId", Long.class);
-    }
-    
-    public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("role", String.class);
-    }
-    
-    public boolean validateToken(String token) {
+    /**
+     * Verifies the token and reads all claims in one parse.
+     *
+     * @return the principal, or null if the token is invalid, expired or missing a claim
+     */
+    public MagisterPrincipal parsePrincipal(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Long userId = claims.get("userId", Long.class);
+            String role = claims.get("role", String.class);
+            if (userId == null || role == null) {
+                return null;
+            }
+            // Tokens issued before branches existed carry no tenantId and belong to the head office
+            Long tenantId = claims.get("tenantId", Long.class);
+            return new MagisterPrincipal(userId, claims.getSubject(), UserRole.valueOf(role),
+                    tenantId != null ? tenantId : TenantContext.DEFAULT_TENANT_ID);
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
         }
     }
-}
\ No newline at end of file
+}
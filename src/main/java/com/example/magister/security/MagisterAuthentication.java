@@ -0,0 +1,63 @@
+package com.example.magister.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * An already-verified JWT authentication. Unlike UsernamePasswordAuthenticationToken it
+ * copies nothing and carries no request details: the authorities are the principal's shared
+ * per-role list.
+ */
+public final class MagisterAuthentication implements Authentication {
+
+    private final MagisterPrincipal principal;
+
+    public MagisterAuthentication(MagisterPrincipal principal) {
+        this.principal = principal;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.authorities();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public MagisterPrincipal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            return;
+        }
+        throw new IllegalArgumentException("A verified JWT authentication cannot be marked unauthenticated");
+    }
+
+    @Override
+    public String getName() {
+        return principal.email();
+    }
+
+    @Override
+    public String toString() {
+        return "MagisterAuthentication[userId=" + principal.userId() + ", role=" + principal.role() + "]";
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.magister.security;
+
+import com.example.magister.entity.UserRole;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The authenticated user, taken from the JWT claims. Controllers receive it as a method
+ * parameter (see CurrentUserArgumentResolver) instead of trusting a client-supplied user id.
+ */
+public record MagisterPrincipal(Long userId, String email, UserRole role, Long tenantId) {
+
+    // One immutable authority list per role, shared by every request
+    private static final Map<UserRole, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(UserRole.class);
+
+    static {
+        for (UserRole role : UserRole.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
+    public Collection<GrantedAuthority> authorities() {
+        return AUTHORITIES.get(role);
+    }
+
+    public boolean isAdmin() {
+        return role == UserRole.ADMIN;
+    }
+
+    /**
+     * The principal of the current request, or null outside an authenticated request.
+     */
+    public static MagisterPrincipal current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof MagisterPrincipal principal) {
+            return principal;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.magister.security;
+
+import com.example.magister.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies RateLimiter to authenticated requests. Runs right after JwtAuthenticationFilter, so
+ * a throttled request is rejected with 429 before it reaches a controller or the database.
+ *
+ * Requests are keyed by the controller mapping they will hit (for example
+ * "GET /api/admin/users/{id}"), taken from the fixed set of @RequestMapping patterns, so
+ * made-up paths cannot mint new buckets: anything that matches no mapping shares the user's
+ * RateLimiter.OTHER_ROUTE bucket.
+ *
+ * Not a @Component: Spring Boot would also register it as a plain servlet filter, where it
+ * would run before authentication and then be skipped inside the security chain.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMapping;
+    private volatile List<Route> routes;
+
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper,
+                           ObjectProvider<RequestMappingHandlerMapping> handlerMapping) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.handlerMapping = handlerMapping;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        MagisterPrincipal principal = MagisterPrincipal.current();
+
+        // Anonymous requests are either public (login) or rejected by authorization anyway
+        if (principal != null) {
+            long waitNanos = rateLimiter.tryAcquire(principal.userId(), principal.role(), routeOf(request));
+            if (waitNanos > 0) {
+                reject(request, response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String routeOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        for (Route route : routes()) {
+            if ((route.methods().isEmpty() || route.methods().contains(method)) && route.pattern().matches(path)) {
+                return method + " " + route.pattern().getPatternString();
+            }
+        }
+        return RateLimiter.OTHER_ROUTE;
+    }
+
+    // Built on first use: the handler mapping is not ready while the security chain is created
+    private List<Route> routes() {
+        List<Route> current = routes;
+        if (current == null) {
+            List<Route> built = new ArrayList<>();
+            for (RequestMappingInfo info : handlerMapping.getObject().getHandlerMethods().keySet()) {
+                Set<String> methods = info.getMethodsCondition().getMethods().stream()
+                        .map(RequestMethod::name)
+                        .collect(Collectors.toSet());
+                for (String pattern : info.getPatternValues()) {
+                    built.add(new Route(methods, PathPatternParser.defaultInstance.parse(pattern)));
+                }
+            }
+            // Most specific first, so /students/search wins over /students/{id}
+            built.sort(Comparator.comparing(Route::pattern, PathPattern.SPECIFICITY_COMPARATOR));
+            current = List.copyOf(built);
+            routes = current;
+        }
+        return current;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos)
+            throws IOException {
+        long retryAfterSeconds = RateLimiter.retryAfterSeconds(waitNanos);
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                "Rate limit exceeded, retry in " + retryAfterSeconds + " s",
+                request.getRequestURI()
+        );
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    private record Route(Set<String> methods, PathPattern pattern) {
+    }
+}
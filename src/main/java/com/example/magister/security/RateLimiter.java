@@ -0,0 +1,226 @@
+package com.example.magister.security;
+
+import com.example.magister.dto.RateLimitStatsDTO;
+import com.example.magister.entity.UserRole;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per (user, route), with capacity and refill rate configured per role under
+ * app.rate-limit.{admin,teacher,student}.
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be full again, so
+ * taking a token is one CAS and never blocks. A bucket that has refilled completely carries
+ * no state worth keeping, so idle buckets are evicted on a schedule; a bucket still in use is
+ * never evicted, since that would hand its user a fresh burst.
+ *
+ * Routes come from RateLimitFilter's fixed route table, but the map is bounded here as well:
+ * a user gets at most app.rate-limit.max-routes-per-user buckets, after which further routes
+ * share the user's OTHER_ROUTE bucket. When the map holds app.rate-limit.max-buckets, full
+ * buckets are evicted (at most once per TRIM_INTERVAL_NANOS, so a flood of new keys does not
+ * rescan the map on every request) and, if none were full, new keys share one overflow
+ * bucket per role until room frees up.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    public static final String OTHER_ROUTE = "other";
+
+    private static final long TRIM_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final int maxRoutesPerUser;
+    private final Map<UserRole, Limit> limits = new EnumMap<>(UserRole.class);
+    private final Map<UserRole, Bucket> overflow = new EnumMap<>(UserRole.class);
+    private final ConcurrentHashMap<Key, Bucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Integer> routesPerUser = new ConcurrentHashMap<>();
+    private final AtomicLong lastTrim;
+
+    private final LongAdder allowed = new LongAdder();
+    private final Map<UserRole, LongAdder> throttled = new EnumMap<>(UserRole.class);
+    private final LongAdder evicted = new LongAdder();
+
+    public RateLimiter(Environment environment,
+                       @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${app.rate-limit.max-buckets:50000}") int maxBuckets,
+                       @Value("${app.rate-limit.max-routes-per-user:64}") int maxRoutesPerUser) {
+        this.enabled = enabled;
+        this.maxBuckets = maxBuckets;
+        this.maxRoutesPerUser = Math.max(1, maxRoutesPerUser);
+        long now = System.nanoTime();
+        this.lastTrim = new AtomicLong(now - TRIM_INTERVAL_NANOS);
+        for (UserRole role : UserRole.values()) {
+            String prefix = "app.rate-limit." + role.name().toLowerCase() + ".";
+            int capacity = environment.getProperty(prefix + "capacity", Integer.class, 60);
+            double refillPerSecond = environment.getProperty(prefix + "refill-per-second", Double.class, 1.0);
+            if (capacity < 1 || refillPerSecond <= 0) {
+                throw new IllegalStateException("Invalid rate limit for " + role
+                        + ": capacity must be >= 1 and refill-per-second > 0");
+            }
+            limits.put(role, new Limit(capacity, refillPerSecond));
+            overflow.put(role, new Bucket(now));
+            throttled.put(role, new LongAdder());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes one token from the caller's bucket for this route.
+     *
+     * @return 0 when the request may proceed, otherwise the number of nanoseconds until a
+     *         token becomes available
+     */
+    public long tryAcquire(Long userId, UserRole role, String route) {
+        Limit limit = limits.get(role);
+        long now = System.nanoTime();
+        Key key = new Key(userId, route);
+
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = newBucket(key, role, now);
+        }
+
+        long waitNanos = bucket.tryAcquire(limit, now);
+        if (waitNanos == 0) {
+            allowed.increment();
+        } else {
+            throttled.get(role).increment();
+        }
+        return waitNanos;
+    }
+
+    // Whole seconds for a Retry-After header, rounded up so a client that honours it is never
+    // throttled again straight away
+    static long retryAfterSeconds(long waitNanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1;
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.evict-interval-ms:60000}")
+    public void evictIdle() {
+        int before = buckets.size();
+        removeFull(System.nanoTime());
+        int removed = before - buckets.size();
+        if (removed > 0) {
+            log.debug("Evicted {} idle rate-limit buckets, {} remain", removed, buckets.size());
+        }
+    }
+
+    public RateLimitStatsDTO getStats() {
+        RateLimitStatsDTO stats = new RateLimitStatsDTO();
+        stats.setEnabled(enabled);
+        stats.setBuckets(buckets.size());
+        stats.setAllowed(allowed.sum());
+        Map<UserRole, Long> byRole = new EnumMap<>(UserRole.class);
+        long total = 0;
+        for (Map.Entry<UserRole, LongAdder> entry : throttled.entrySet()) {
+            long count = entry.getValue().sum();
+            byRole.put(entry.getKey(), count);
+            total += count;
+        }
+        stats.setThrottled(total);
+        stats.setThrottledByRole(byRole);
+        stats.setEvicted(evicted.sum());
+        return stats;
+    }
+
+    private Bucket newBucket(Key key, UserRole role, long now) {
+        if (!OTHER_ROUTE.equals(key.route()) && routesPerUser.getOrDefault(key.userId(), 0) >= maxRoutesPerUser) {
+            key = new Key(key.userId(), OTHER_ROUTE);
+            Bucket other = buckets.get(key);
+            if (other != null) {
+                return other;
+            }
+        }
+        if (buckets.size() >= maxBuckets) {
+            trimIfDue(now);
+            if (buckets.size() >= maxBuckets) {
+                return overflow.get(role);
+            }
+        }
+        Long userId = key.userId();
+        return buckets.computeIfAbsent(key, k -> {
+            routesPerUser.merge(userId, 1, Integer::sum);
+            return new Bucket(now);
+        });
+    }
+
+    // Only full buckets are dropped, and the scan runs at most once per TRIM_INTERVAL_NANOS
+    private void trimIfDue(long now) {
+        long last = lastTrim.get();
+        if (now - last >= TRIM_INTERVAL_NANOS && lastTrim.compareAndSet(last, now)) {
+            removeFull(now);
+            if (buckets.size() >= maxBuckets) {
+                log.warn("Rate limiter holds {} buckets in use; new routes share a per-role bucket", buckets.size());
+            }
+        }
+    }
+
+    private void removeFull(long now) {
+        Iterator<Map.Entry<Key, Bucket>> iterator = buckets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Bucket> entry = iterator.next();
+            if (entry.getValue().isFull(now) && buckets.remove(entry.getKey(), entry.getValue())) {
+                routesPerUser.computeIfPresent(entry.getKey().userId(), (userId, count) -> count > 1 ? count - 1 : null);
+                evicted.increment();
+            }
+        }
+    }
+
+    private record Key(Long userId, String route) {
+    }
+
+    static final class Limit {
+        // Nanoseconds to refill one token, and to refill the whole bucket
+        final long tokenNanos;
+        final long burstNanos;
+
+        Limit(int capacity, double refillPerSecond) {
+            this.tokenNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+            this.burstNanos = tokenNanos * capacity;
+        }
+    }
+
+    static final class Bucket {
+        // The bucket is full at or after this System.nanoTime() value; each token taken
+        // pushes it tokenNanos further into the future
+        private final AtomicLong fullAt;
+
+        Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        long tryAcquire(Limit limit, long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + limit.tokenNanos;
+                long overflow = next - now - limit.burstNanos;
+                if (overflow > 0) {
+                    return overflow;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return fullAt.get() - now <= 0;
+        }
+    }
+}
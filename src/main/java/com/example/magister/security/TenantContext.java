@@ -0,0 +1,61 @@
+package com.example.magister.security;
+
+import com.example.magister.exception.UnauthorizedException;
+
+import java.util.function.Supplier;
+
+/**
+ * Branch (tenant) of the current request, taken from the JWT tenantId claim by
+ * JwtAuthenticationFilter and cleared when the request ends.
+ *
+ * Scheduled jobs, startup backfills and unauthenticated requests have no tenant and run
+ * unfiltered. Tenant 1 is the head office; rows created before branches existed belong to it.
+ */
+public final class TenantContext {
+
+    public static final long DEFAULT_TENANT_ID = 1L;
+
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static Long getTenantId() {
+        return CURRENT.get();
+    }
+
+    public static void setTenantId(Long tenantId) {
+        CURRENT.set(tenantId);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static long currentOrDefault() {
+        Long tenantId = CURRENT.get();
+        return tenantId != null ? tenantId : DEFAULT_TENANT_ID;
+    }
+
+    // Rebuilds touch every branch: only the head office may start one, and it runs without a
+    // tenant so the transactions it opens are not filtered
+    public static void runAcrossTenants(Runnable action) {
+        callAcrossTenants(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T callAcrossTenants(Supplier<T> action) {
+        Long tenantId = CURRENT.get();
+        if (tenantId != null && tenantId != DEFAULT_TENANT_ID) {
+            throw new UnauthorizedException("Only head-office admins can run cross-branch maintenance");
+        }
+        CURRENT.remove();
+        try {
+            return action.get();
+        } finally {
+            setTenantId(tenantId);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.AdminDashboardDTO;
+import com.example.magister.dto.PaymentStatsDTO;
+import com.example.magister.security.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Precomputed admin dashboard.
+ *
+ * A scheduled job (app.dashboard.refresh-interval-ms) computes the metrics of every branch with
+ * a handful of GROUP BY tenant_id queries over users, groups, payment_rollups, group_students
+ * and the last 30 days of attendance, and publishes them as one immutable snapshot. The
+ * dashboard endpoint only reads the snapshot. Refreshes are single-flight: a refresh requested
+ * while another is running waits for that one and shares its result instead of running the
+ * queries again.
+ */
+@Service
+@Slf4j
+public class AdminMetricsService {
+
+    private static final String USERS_SQL = "SELECT tenant_id, COUNT(*), " +
+            "COUNT(*) FILTER (WHERE role = 'STUDENT'), COUNT(*) FILTER (WHERE role = 'TEACHER') " +
+            "FROM users GROUP BY tenant_id";
+    private static final String GROUPS_SQL = "SELECT tenant_id, COUNT(*), COUNT(*) FILTER (WHERE status = 'ACTIVE') " +
+            "FROM groups GROUP BY tenant_id";
+    private static final String PAYMENTS_SQL = "SELECT tenant_id, SUM(payment_count), SUM(total_amount), " +
+            "COALESCE(SUM(total_amount) FILTER (WHERE payment_day >= ?), 0) FROM payment_rollups GROUP BY tenant_id";
+    private static final String BALANCES_SQL = "SELECT tenant_id, COALESCE(SUM(balance) FILTER (WHERE balance > 0), 0), " +
+            "COUNT(*) FILTER (WHERE balance > 0) FROM group_students GROUP BY tenant_id";
+    private static final String ATTENDANCE_SQL = "SELECT tenant_id, COUNT(*), COUNT(*) FILTER (WHERE status <> 'ABSENT') " +
+            "FROM attendance WHERE lesson_date >= ? GROUP BY tenant_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+
+    public AdminMetricsService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.refresh-interval-ms:60000}",
+            initialDelayString = "${app.dashboard.initial-delay-ms:5000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Admin metrics refresh failed; serving the previous snapshot", e);
+        }
+    }
+
+    public AdminDashboardDTO getDashboard() {
+        Snapshot current = snapshot.get();
+        return (current != null ? current : refresh()).forTenant(TenantContext.currentOrDefault());
+    }
+
+    public AdminDashboardDTO refreshDashboard() {
+        return refresh().forTenant(TenantContext.currentOrDefault());
+    }
+
+    private Snapshot refresh() {
+        CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+        CompletableFuture<Snapshot> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            long started = System.nanoTime();
+            Snapshot computed = compute();
+            snapshot.set(computed);
+            mine.complete(computed);
+            log.debug("Admin metrics computed for {} branches in {} ms", computed.byTenant.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+            return computed;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    private Snapshot compute() {
+        LocalDateTime computedAt = LocalDateTime.now();
+        Map<Long, AdminDashboardDTO> byTenant = new HashMap<>();
+
+        jdbcTemplate.query(USERS_SQL, (ResultSet rs) -> {
+            AdminDashboardDTO dto = byTenant.computeIfAbsent(rs.getLong(1), id -> empty(computedAt));
+            dto.setTotalUsers(rs.getInt(2));
+            dto.setTotalStudents(rs.getInt(3));
+            dto.setTotalTeachers(rs.getInt(4));
+        });
+        jdbcTemplate.query(GROUPS_SQL, (ResultSet rs) -> {
+            AdminDashboardDTO dto = byTenant.computeIfAbsent(rs.getLong(1), id -> empty(computedAt));
+            dto.setTotalGroups(rs.getInt(2));
+            dto.setActiveGroups(rs.getInt(3));
+        });
+        jdbcTemplate.query(PAYMENTS_SQL, (ResultSet rs) -> {
+            AdminDashboardDTO dto = byTenant.computeIfAbsent(rs.getLong(1), id -> empty(computedAt));
+            dto.getPaymentStats().setTotalPayments(rs.getInt(2));
+            dto.getPaymentStats().setTotalAmount(amount(rs, 3));
+            dto.setRevenueThisMonth(amount(rs, 4));
+        }, Date.valueOf(LocalDate.now().withDayOfMonth(1)));
+        jdbcTemplate.query(BALANCES_SQL, (ResultSet rs) -> {
+            AdminDashboardDTO dto = byTenant.computeIfAbsent(rs.getLong(1), id -> empty(computedAt));
+            dto.setOutstandingBalance(amount(rs, 2));
+            dto.setDebtorCount(rs.getInt(3));
+        });
+        jdbcTemplate.query(ATTENDANCE_SQL, (ResultSet rs) -> {
+            AdminDashboardDTO dto = byTenant.computeIfAbsent(rs.getLong(1), id -> empty(computedAt));
+            long lessons = rs.getLong(2);
+            dto.setAttendanceRateLast30Days(lessons > 0 ? rs.getLong(3) * 100.0 / lessons : null);
+        }, Timestamp.valueOf(computedAt.minusDays(30)));
+
+        return new Snapshot(Map.copyOf(byTenant), computedAt);
+    }
+
+    private static BigDecimal amount(ResultSet rs, int column) throws SQLException {
+        BigDecimal value = rs.getBigDecimal(column);
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static AdminDashboardDTO empty(LocalDateTime computedAt) {
+        PaymentStatsDTO paymentStats = new PaymentStatsDTO();
+        paymentStats.setTotalPayments(0);
+        paymentStats.setTotalAmount(BigDecimal.ZERO);
+
+        AdminDashboardDTO dto = new AdminDashboardDTO();
+        dto.setTotalUsers(0);
+        dto.setTotalStudents(0);
+        dto.setTotalTeachers(0);
+        dto.setTotalGroups(0);
+        dto.setActiveGroups(0);
+        dto.setPaymentStats(paymentStats);
+        dto.setRevenueThisMonth(BigDecimal.ZERO);
+        dto.setOutstandingBalance(BigDecimal.ZERO);
+        dto.setDebtorCount(0);
+        dto.setComputedAt(computedAt);
+        return dto;
+    }
+
+    private static Snapshot await(CompletableFuture<Snapshot> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Published whole and never modified, so readers need no locking
+    private record Snapshot(Map<Long, AdminDashboardDTO> byTenant, LocalDateTime computedAt) {
+        AdminDashboardDTO forTenant(long tenantId) {
+            AdminDashboardDTO dto = byTenant.get(tenantId);
+            return dto != null ? dto : empty(computedAt);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.magister.service;
+
+import com.example.magister.repository.AttendanceMonthlySummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the attendance table down to the last app.attendance.archive.retain-months months.
+ *
+ * Each run moves whole months older than the retention window into attendance_archive (cold
+ * storage, no foreign keys, not read by the API) and adds their per-student counts to
+ * attendance_monthly_summary, so summaries stay complete while reading only recent rows.
+ *
+ * When attendance has been converted to monthly range partitions (db/attendance-partitioning.sql)
+ * the same job also creates the partitions for the coming months and drops the emptied ones,
+ * so the planner only ever sees the retention window plus a few months ahead.
+ */
+@Service
+@Slf4j
+public class AttendanceArchiveService {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("attendance_y(\\d{4})m(\\d{2})");
+
+    private final AttendanceMonthlySummaryRepository summaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.attendance.archive.retain-months:24}")
+    private int retainMonths;
+
+    @Value("${app.attendance.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    public AttendanceArchiveService(AttendanceMonthlySummaryRepository summaryRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.attendance.archive.cron:0 30 2 * * *}")
+    public void runMaintenance() {
+        boolean partitioned = isPartitioned();
+        if (partitioned) {
+            createUpcomingPartitions();
+        }
+        archiveExpired();
+        if (partitioned) {
+            dropArchivedPartitions();
+        }
+    }
+
+    public int archiveExpired() {
+        LocalDateTime cutoff = archiveCutoff().atStartOfDay();
+        Integer moved = transactionTemplate.execute(status -> summaryRepository.archiveLessonsBefore(cutoff));
+        if (moved != null && moved > 0) {
+            log.info("Archived attendance before {}: {} monthly summary rows written", cutoff.toLocalDate(), moved);
+        }
+        return moved != null ? moved : 0;
+    }
+
+    // First day of the oldest month that stays in the attendance table
+    public LocalDate archiveCutoff() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(Math.max(1, retainMonths));
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('attendance'))",
+                Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private void createUpcomingPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= monthsAhead; i++, month = month.plusMonths(1)) {
+            String sql = String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF attendance FOR VALUES FROM ('%s') TO ('%s')",
+                    partitionName(month), month, month.plusMonths(1));
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (RuntimeException e) {
+                // Usually rows for that month already sit in the default partition; see the script
+                log.warn("Could not create attendance partition {}: {}", partitionName(month), e.getMessage());
+            }
+        }
+    }
+
+    private void dropArchivedPartitions() {
+        LocalDate cutoff = archiveCutoff();
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = to_regclass('attendance')", String.class);
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            LocalDate month = LocalDate.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), 1);
+            if (month.plusMonths(1).isAfter(cutoff)) {
+                continue;
+            }
+            Boolean empty = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Dropped archived attendance partition {}", partition);
+            }
+        }
+    }
+
+    private static String partitionName(LocalDate month) {
+        return String.format("attendance_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+}
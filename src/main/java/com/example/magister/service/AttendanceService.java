@@ -1,12 +1,14 @@
 package com.example.magister.service;
 
 import com.example.magister.dto.AttendanceDTO;
+import com.example.magister.dto.AttendanceMatrixDTO;
 import com.example.magister.dto.AttendanceSummary;
 import com.example.magister.dto.MarkAttendanceRequest;
 import com.example.magister.dto.UpdateAttendanceRequest;
 // ... (I will add all imports here to be safe and clear)
 import com.example.magister.entity.Attendance;
 import com.example.magister.entity.AttendanceStatus;
+import com.example.magister.entity.AuditAction;
 import com.example.magister.entity.EnrollmentStatus;
 import com.example.magister.entity.Group;
 import com.example.magister.entity.User;
@@ -14,6 +16,7 @@ import com.example.magister.entity.UserRole;
 import com.example.magister.exception.BusinessException;
 import com.example.magister.exception.ResourceNotFoundException;
 import com.example.magister.exception.UnauthorizedException;
+import com.example.magister.repository.AttendanceMonthlySummaryRepository;
 import com.example.magister.repository.AttendanceRepository;
 import com.example.magister.repository.GroupRepository;
 import com.example.magister.repository.GroupStudentRepository;
@@ -23,8 +26,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,6 +44,13 @@ public class AttendanceService {
         private final UserRepository userRepository;
         private final GroupRepository groupRepository;
         private final GroupStudentRepository groupStudentRepository;
+        private final VersionStampService versionStampService;
+        private final StudentEventService studentEventService;
+        private final OutboxService outboxService;
+        private final AuditService auditService;
+        private final AttendanceStatsService attendanceStatsService;
+        private final AttendanceArchiveService attendanceArchiveService;
+        private final AttendanceMonthlySummaryRepository summaryRepository;
 
         @Transactional
         public AttendanceDTO markAttendance(MarkAttendanceRequest request, Long markedById) {
@@ -76,9 +90,16 @@ public class AttendanceService {
                                 .build();
 
                 attendance = attendanceRepository.save(attendance);
+                attendanceStatsService.onMarked(attendance);
+                versionStampService.studentChanged(student.getId());
+                audit(AuditAction.ATTENDANCE_MARKED, attendance);
                 log.info("Attendance marked successfully");
 
-                return mapToAttendanceDTO(attendance);
+                AttendanceDTO dto = mapToAttendanceDTO(attendance);
+                studentEventService.publish(student.getId(), StudentEventService.ATTENDANCE_MARKED,
+                                group.getId(), dto);
+                outboxService.publish(OutboxService.ATTENDANCE, dto.getId(), StudentEventService.ATTENDANCE_MARKED, dto);
+                return dto;
         }
 
         @Transactional
@@ -95,6 +116,7 @@ public class AttendanceService {
                         throw new UnauthorizedException("You can only update attendance you marked");
                 }
 
+                AttendanceStatus previousStatus = attendance.getStatus();
                 if (request.getStatus() != null) {
                         attendance.setStatus(request.getStatus());
                 }
@@ -103,12 +125,37 @@ public class AttendanceService {
                 }
 
                 attendance = attendanceRepository.save(attendance);
-                return mapToAttendanceDTO(attendance);
+                attendanceStatsService.onUpdated(attendance, previousStatus);
+                versionStampService.studentChanged(attendance.getStudent().getId());
+                audit(AuditAction.ATTENDANCE_UPDATED, attendance);
+
+                AttendanceDTO dto = mapToAttendanceDTO(attendance);
+                studentEventService.publish(dto.getStudentId(), StudentEventService.ATTENDANCE_UPDATED,
+                                dto.getGroupId(), dto);
+                outboxService.publish(OutboxService.ATTENDANCE, dto.getId(), StudentEventService.ATTENDANCE_UPDATED, dto);
+                return dto;
         }
 
         @Transactional(readOnly = true)
         public List<AttendanceDTO> getAttendanceByStudent(Long studentId) {
-                return attendanceRepository.findByStudentId(studentId).stream()
+                return getAttendanceByStudent(studentId, null, null);
+        }
+
+        /**
+         * Lessons of a student still in the attendance table, optionally limited to [from, to].
+         * Lessons older than the archive retention window are only reflected in the summary.
+         */
+        @Transactional(readOnly = true)
+        public List<AttendanceDTO> getAttendanceByStudent(Long studentId, LocalDate from, LocalDate to) {
+                if (from != null && to != null && to.isBefore(from)) {
+                        throw new BusinessException("'to' must not be before 'from'");
+                }
+                List<Attendance> attendances = from == null && to == null
+                                ? attendanceRepository.findByStudentId(studentId)
+                                : attendanceRepository.findByStudentIdAndRange(studentId,
+                                                (from != null ? from : attendanceArchiveService.archiveCutoff()).atStartOfDay(),
+                                                (to != null ? to.plusDays(1) : LocalDate.now().plusYears(1)).atStartOfDay());
+                return attendances.stream()
                                 .map(this::mapToAttendanceDTO)
                                 .collect(Collectors.toList());
         }
@@ -144,33 +191,115 @@ public class AttendanceService {
                                 .collect(Collectors.toList());
         }
 
+        /**
+         * Builds the students x lessons grid for a group from one range scan over
+         * (group_id, lesson_date). Active students always get a row; students who have left
+         * but were marked in the range are appended after them.
+         */
+        @Transactional(readOnly = true)
+        public AttendanceMatrixDTO getAttendanceMatrix(Long groupId, LocalDate from, LocalDate to) {
+                if (from.isAfter(to)) {
+                        throw new BusinessException("'from' must not be after 'to'");
+                }
+                if (!groupRepository.existsById(groupId)) {
+                        throw new ResourceNotFoundException("Group", "id", groupId);
+                }
+
+                List<Object[]> cells = attendanceRepository.findCellsByGroupAndRange(
+                                groupId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+
+                Map<Long, Integer> studentIndex = new LinkedHashMap<>();
+                List<String> studentNames = new ArrayList<>();
+                for (Object[] row : groupStudentRepository.findStudentNamesByGroupIdAndStatus(
+                                groupId, EnrollmentStatus.ACTIVE)) {
+                        studentIndex.put((Long) row[0], studentIndex.size());
+                        studentNames.add((String) row[1]);
+                }
+                List<Long> formerStudents = cells.stream()
+                                .map(row -> (Long) row[0])
+                                .filter(id -> !studentIndex.containsKey(id))
+                                .distinct()
+                                .toList();
+                if (!formerStudents.isEmpty()) {
+                        Map<Long, String> names = userRepository.findAllById(formerStudents).stream()
+                                        .collect(Collectors.toMap(User::getId, User::getFullName));
+                        for (Long id : formerStudents) {
+                                studentIndex.put(id, studentIndex.size());
+                                studentNames.add(names.get(id));
+                        }
+                }
+
+                // Rows arrive ordered by lesson date, so the date index is built in one pass
+                Map<LocalDateTime, Integer> dateIndex = new LinkedHashMap<>();
+                for (Object[] row : cells) {
+                        dateIndex.putIfAbsent((LocalDateTime) row[1], dateIndex.size());
+                }
+
+                int columns = dateIndex.size();
+                byte[] packed = new byte[(studentIndex.size() * columns + 3) / 4];
+                for (Object[] row : cells) {
+                        int cell = studentIndex.get((Long) row[0]) * columns + dateIndex.get((LocalDateTime) row[1]);
+                        int code = switch ((AttendanceStatus) row[2]) {
+                                case PRESENT -> 1;
+                                case ABSENT -> 2;
+                                case LATE -> 3;
+                        };
+                        int shift = (cell & 3) * 2;
+                        packed[cell >> 2] = (byte) ((packed[cell >> 2] & ~(3 << shift)) | (code << shift));
+                }
+
+                AttendanceMatrixDTO matrix = new AttendanceMatrixDTO();
+                matrix.setGroupId(groupId);
+                matrix.setFrom(from);
+                matrix.setTo(to);
+                matrix.setStudentIds(new ArrayList<>(studentIndex.keySet()));
+                matrix.setStudentNames(studentNames);
+                matrix.setLessonDates(new ArrayList<>(dateIndex.keySet()));
+                matrix.setBitsPerCell(2);
+                matrix.setCells(packed);
+                return matrix;
+        }
+
         @Transactional(readOnly = true)
         public AttendanceSummary getAttendanceSummary(Long studentId) {
-                List<Attendance> attendances = attendanceRepository.findByStudentId(studentId);
-
-                long present = attendances.stream()
-                                .filter(a -> a.getStatus() == AttendanceStatus.PRESENT)
-                                .count();
-                long absent = attendances.stream()
-                                .filter(a -> a.getStatus() == AttendanceStatus.ABSENT)
-                                .count();
-                long late = attendances.stream()
-                                .filter(a -> a.getStatus() == AttendanceStatus.LATE)
-                                .count();
+                // Live rows are counted in the database; archived months come from the rollup
+                long present = 0;
+                long absent = 0;
+                long late = 0;
+                for (Object[] row : attendanceRepository.countByStatusForStudent(studentId)) {
+                        long count = ((Number) row[1]).longValue();
+                        switch ((AttendanceStatus) row[0]) {
+                                case PRESENT -> present += count;
+                                case ABSENT -> absent += count;
+                                case LATE -> late += count;
+                        }
+                }
+                Object[] archived = summaryRepository.sumByStudentId(studentId).get(0);
+                present += ((Number) archived[0]).longValue();
+                absent += ((Number) archived[1]).longValue();
+                late += ((Number) archived[2]).longValue();
+                long total = present + absent + late;
 
                 AttendanceSummary summary = new AttendanceSummary();
                 summary.setTotalPresent((int) present);
                 summary.setTotalAbsent((int) absent);
                 summary.setTotalLate((int) late);
-                summary.setTotalLessons(attendances.size());
+                summary.setTotalLessons((int) total);
 
-                if (attendances.size() > 0) {
-                        summary.setAttendanceRate((double) present / attendances.size() * 100);
+                if (total > 0) {
+                        summary.setAttendanceRate((double) present / total * 100);
                 }
 
                 return summary;
         }
 
+        private void audit(AuditAction action, Attendance attendance) {
+                auditService.record(action, "Attendance", attendance.getId(), String.format(
+                                "student=%d group=%d lessonDate=%s status=%s",
+                                attendance.getStudent().getId(), attendance.getGroup().getId(),
+                                attendance.getLessonDate(), attendance.getStatus()));
+        }
+
         private AttendanceDTO mapToAttendanceDTO(Attendance attendance) {
                 AttendanceDTO dto = new AttendanceDTO();
                 dto.setId(attendance.getId());
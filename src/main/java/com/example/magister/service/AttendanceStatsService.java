@@ -0,0 +1,203 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.AttendanceRiskDTO;
+import com.example.magister.entity.Attendance;
+import com.example.magister.entity.AttendanceStats;
+import com.example.magister.entity.AttendanceStatus;
+import com.example.magister.repository.AttendanceMonthlySummaryRepository;
+import com.example.magister.repository.AttendanceRepository;
+import com.example.magister.repository.AttendanceStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps attendance_stats in step with attendance.
+ *
+ * Marking the newest lesson of a (student, group) pair, or correcting that newest lesson,
+ * is applied in O(1): the absence streak, a 64-lesson absence bitmask (from which the
+ * last-N window counts are taken) and an exponentially decayed attendance rate are all
+ * updated from the previous values. A lesson marked out of order, or a correction to an
+ * older lesson, replays just that pair's history. The row is locked for the update so
+ * concurrent marks for the same student and group are serialized.
+ *
+ * LATE counts as attended; only ABSENT breaks a streak of attendance.
+ */
+@Service
+@Slf4j
+public class AttendanceStatsService {
+
+    private final AttendanceStatsRepository attendanceStatsRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceMonthlySummaryRepository summaryRepository;
+    private final int windowLessons;
+    private final double decay;
+
+    @Value("${app.attendance.risk.absence-streak:3}")
+    private int riskAbsenceStreak;
+
+    @Value("${app.attendance.risk.min-rate:0.7}")
+    private double riskMinRate;
+
+    @Value("${app.attendance.risk.min-window-lessons:4}")
+    private int riskMinWindowLessons;
+
+    public AttendanceStatsService(AttendanceStatsRepository attendanceStatsRepository,
+                                  AttendanceRepository attendanceRepository,
+                                  AttendanceMonthlySummaryRepository summaryRepository,
+                                  @Value("${app.attendance.risk.window-lessons:12}") int windowLessons,
+                                  @Value("${app.attendance.risk.decay:0.2}") double decay) {
+        this.attendanceStatsRepository = attendanceStatsRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.summaryRepository = summaryRepository;
+        this.windowLessons = Math.max(1, Math.min(windowLessons, Long.SIZE));
+        this.decay = decay;
+    }
+
+    @Transactional
+    public void onMarked(Attendance attendance) {
+        AttendanceStats stats = lockStats(attendance);
+        if (stats.getLastLessonDate() != null && attendance.getLessonDate().isBefore(stats.getLastLessonDate())) {
+            replay(stats);
+            return;
+        }
+        append(stats, attendance);
+        save(stats);
+    }
+
+    @Transactional
+    public void onUpdated(Attendance attendance, AttendanceStatus previousStatus) {
+        boolean wasAbsent = previousStatus == AttendanceStatus.ABSENT;
+        boolean absent = attendance.getStatus() == AttendanceStatus.ABSENT;
+        if (wasAbsent == absent) {
+            return;
+        }
+        AttendanceStats stats = lockStats(attendance);
+        if (!attendance.getId().equals(stats.getLastAttendanceId())) {
+            replay(stats);
+            return;
+        }
+        // Only the newest lesson changed, so bit 0 and the last decay step can be corrected in place
+        long mask = absent ? stats.getRecentMask() | 1L : stats.getRecentMask() & ~1L;
+        stats.setRecentMask(mask);
+        stats.setAbsentCount(stats.getAbsentCount() + (absent ? 1 : -1));
+        stats.setAbsenceStreak(absent ? 1 + Long.numberOfTrailingZeros(~(mask >>> 1)) : 0);
+        stats.setDecayedRate(stats.getDecayedRate() + decay * (absent ? -1.0 : 1.0));
+        save(stats);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AttendanceRiskDTO> getStudentsAtRisk(Long teacherId) {
+        return attendanceStatsRepository.findAtRiskByTeacher(teacherId, riskAbsenceStreak,
+                        riskMinWindowLessons, riskMinRate).stream()
+                .map(this::mapToRiskDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Fills attendance_stats the first time the table is empty on a database with attendance
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (attendanceStatsRepository.countAll() == 0) {
+            rebuildAll();
+        }
+    }
+
+    @Transactional
+    public void rebuildAll() {
+        log.info("Rebuilding attendance statistics from attendance history");
+        attendanceStatsRepository.deleteAllStats();
+        for (Object[] pair : attendanceRepository.findStudentGroupPairs()) {
+            Long studentId = (Long) pair[0];
+            Long groupId = (Long) pair[1];
+            attendanceStatsRepository.ensureExists(studentId, groupId);
+            attendanceStatsRepository.findForUpdate(studentId, groupId).ifPresent(this::replay);
+        }
+    }
+
+    private AttendanceStats lockStats(Attendance attendance) {
+        Long studentId = attendance.getStudent().getId();
+        Long groupId = attendance.getGroup().getId();
+        attendanceStatsRepository.ensureExists(studentId, groupId);
+        return attendanceStatsRepository.findForUpdate(studentId, groupId)
+                .orElseThrow(() -> new IllegalStateException(
+                        "attendance_stats row missing for student " + studentId + " group " + groupId));
+    }
+
+    // Archived lessons only count towards the totals; streak, window and rate come from the
+    // live rows, which always cover far more than the 64-lesson mask. Package-private so tests
+    // can check the incremental updates against it
+    void replay(AttendanceStats stats) {
+        Object[] archived = summaryRepository.sumByStudentIdAndGroupId(
+                stats.getStudent().getId(), stats.getGroup().getId()).get(0);
+        stats.setTotalLessons(((Number) archived[0]).intValue());
+        stats.setAbsentCount(((Number) archived[1]).intValue());
+        stats.setAbsenceStreak(0);
+        stats.setRecentMask(0L);
+        stats.setDecayedRate(1.0);
+        stats.setLastLessonDate(null);
+        stats.setLastAttendanceId(null);
+        for (Attendance attendance : attendanceRepository.findHistory(
+                stats.getStudent().getId(), stats.getGroup().getId())) {
+            append(stats, attendance);
+        }
+        save(stats);
+    }
+
+    // Adds one lesson after the current newest one
+    private void append(AttendanceStats stats, Attendance attendance) {
+        boolean absent = attendance.getStatus() == AttendanceStatus.ABSENT;
+        stats.setTotalLessons(stats.getTotalLessons() + 1);
+        stats.setAbsentCount(stats.getAbsentCount() + (absent ? 1 : 0));
+        stats.setAbsenceStreak(absent ? stats.getAbsenceStreak() + 1 : 0);
+        stats.setRecentMask((stats.getRecentMask() << 1) | (absent ? 1L : 0L));
+        stats.setDecayedRate(decay * (absent ? 0.0 : 1.0) + (1 - decay) * stats.getDecayedRate());
+        stats.setLastLessonDate(attendance.getLessonDate());
+        stats.setLastAttendanceId(attendance.getId());
+    }
+
+    private void save(AttendanceStats stats) {
+        long windowMask = windowLessons == Long.SIZE ? -1L : (1L << windowLessons) - 1;
+        stats.setWindowLessons(Math.min(stats.getTotalLessons(), windowLessons));
+        stats.setWindowAbsences(Long.bitCount(stats.getRecentMask() & windowMask));
+        stats.setUpdatedAt(LocalDateTime.now());
+        attendanceStatsRepository.save(stats);
+    }
+
+    private AttendanceRiskDTO mapToRiskDTO(AttendanceStats stats) {
+        AttendanceRiskDTO dto = new AttendanceRiskDTO();
+        dto.setStudentId(stats.getStudent().getId());
+        dto.setStudentName(stats.getStudent().getFullName());
+        dto.setStudentPhone(stats.getStudent().getPhone());
+        dto.setGroupId(stats.getGroup().getId());
+        dto.setGroupName(stats.getGroup().getName());
+        dto.setAbsenceStreak(stats.getAbsenceStreak());
+        dto.setWindowLessons(stats.getWindowLessons());
+        dto.setWindowAbsences(stats.getWindowAbsences());
+        double windowRate = stats.getWindowLessons() > 0
+                ? (double) (stats.getWindowLessons() - stats.getWindowAbsences()) / stats.getWindowLessons()
+                : 1.0;
+        dto.setWindowRate(windowRate * 100);
+        dto.setDecayedRate(stats.getDecayedRate() * 100);
+        dto.setTotalLessons(stats.getTotalLessons());
+        dto.setLastLessonDate(stats.getLastLessonDate());
+
+        List<String> reasons = new ArrayList<>();
+        if (stats.getAbsenceStreak() >= riskAbsenceStreak) {
+            reasons.add("ABSENCE_STREAK");
+        }
+        if (stats.getWindowLessons() >= riskMinWindowLessons && windowRate < riskMinRate) {
+            reasons.add("LOW_RECENT_RATE");
+        }
+        dto.setReasons(reasons);
+        return dto;
+    }
+}
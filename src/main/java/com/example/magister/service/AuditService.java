@@ -0,0 +1,262 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.AuditLogDTO;
+import com.example.magister.dto.AuditPageDTO;
+import com.example.magister.entity.AuditAction;
+import com.example.magister.entity.AuditLog;
+import com.example.magister.repository.AuditLogRepository;
+import com.example.magister.security.MagisterPrincipal;
+import com.example.magister.security.TenantContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind audit trail for domain changes.
+ *
+ * record() captures the acting user from the security context and, once the surrounding
+ * transaction commits, places the entry in a fixed-size lock-free ring buffer. A scheduled
+ * writer drains the ring and inserts entries into audit_log with JDBC batch inserts, so
+ * request threads never wait on the audit table. When the ring is full new entries are
+ * dropped and counted rather than growing memory. The ring is flushed on shutdown.
+ *
+ * A batch that fails to insert is kept and retried with exponential backoff before anything
+ * else is drained, so a database outage fills the ring (and then counts drops) instead of
+ * losing entries silently. A batch that still fails after MAX_ATTEMPTS, or is left over at
+ * shutdown, is counted as dropped.
+ */
+@Service
+@Slf4j
+public class AuditService {
+
+    private static final String INSERT_SQL = "INSERT INTO audit_log " +
+            "(tenant_id, actor_id, action, entity_type, entity_id, details, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    private final AuditLogRepository auditLogRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final RingBuffer ring;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Owned by the flushing thread (guarded by flushLock)
+    private List<AuditLog> failedBatch = List.of();
+    private int failedAttempts;
+    private long retryAt;
+
+    @Value("${app.audit.batch-size:500}")
+    private int batchSize;
+
+    public AuditService(AuditLogRepository auditLogRepository,
+                        JdbcTemplate jdbcTemplate,
+                        @Value("${app.audit.buffer-size:8192}") int bufferSize) {
+        this.auditLogRepository = auditLogRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ring = new RingBuffer(bufferSize);
+    }
+
+    public void record(AuditAction action, String entityType, Long entityId, String details) {
+        AuditLog entry = AuditLog.builder()
+                .actorId(currentUserId())
+                .action(action)
+                .entityType(entityType)
+                .entityId(entityId)
+                .details(details != null && details.length() > 1000 ? details.substring(0, 1000) : details)
+                .createdAt(LocalDateTime.now())
+                .build();
+        // Captured now: the writer thread that inserts the entry has no tenant of its own
+        entry.setTenantId(TenantContext.currentOrDefault());
+
+        TransactionHooks.afterCommit(() -> {
+            if (!ring.offer(entry)) {
+                long total = dropped.incrementAndGet();
+                if (total == 1 || total % 1000 == 0) {
+                    log.warn("Audit buffer full, {} entries dropped so far", total);
+                }
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.audit.flush-interval-ms:1000}")
+    public void flush() {
+        // Single consumer: the ring is MPSC, so drains must never overlap
+        flushLock.lock();
+        try {
+            if (!failedBatch.isEmpty()) {
+                if (System.currentTimeMillis() < retryAt || !write(failedBatch)) {
+                    return;
+                }
+                failedBatch = List.of();
+            }
+            List<AuditLog> batch = new ArrayList<>(batchSize);
+            AuditLog entry;
+            while ((entry = ring.poll()) != null) {
+                batch.add(entry);
+                if (batch.size() >= batchSize) {
+                    if (!write(batch)) {
+                        return;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLock.lock();
+        try {
+            retryAt = 0;
+            flush();
+            long lost = failedBatch.size();
+            while (ring.poll() != null) {
+                lost++;
+            }
+            if (lost > 0) {
+                dropped.addAndGet(lost);
+                log.error("Audit database unavailable at shutdown, {} entries dropped", lost);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        log.info("Audit log flushed on shutdown ({} entries dropped during uptime)", dropped.get());
+    }
+
+    @Transactional(readOnly = true)
+    public AuditPageDTO getAuditLog(String entityType, Long entityId, Long actorId, Long beforeId, int size) {
+        int pageSize = Math.max(1, Math.min(size, 200));
+        List<AuditLog> rows = auditLogRepository.findPage(
+                beforeId != null ? beforeId : Long.MAX_VALUE,
+                entityType, entityId, actorId,
+                PageRequest.of(0, pageSize));
+
+        AuditPageDTO page = new AuditPageDTO();
+        page.setItems(rows.stream().map(this::mapToAuditLogDTO).collect(Collectors.toList()));
+        page.setNextCursor(rows.size() == pageSize ? rows.get(rows.size() - 1).getId() : null);
+        return page;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Inserts one batch. On failure the batch is kept for a retry after a backoff and false
+     * is returned so the caller stops draining; after MAX_ATTEMPTS it is counted as dropped.
+     */
+    private boolean write(List<AuditLog> batch) {
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (AuditLog entry : batch) {
+            args.add(new Object[]{
+                    entry.getTenantId(),
+                    entry.getActorId(),
+                    entry.getAction().name(),
+                    entry.getEntityType(),
+                    entry.getEntityId(),
+                    entry.getDetails(),
+                    Timestamp.valueOf(entry.getCreatedAt())
+            });
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, args);
+            failedAttempts = 0;
+            return true;
+        } catch (RuntimeException e) {
+            failedAttempts++;
+            if (failedAttempts >= MAX_ATTEMPTS) {
+                long total = dropped.addAndGet(batch.size());
+                log.error("Dropping {} audit entries after {} failed attempts ({} dropped so far)",
+                        batch.size(), failedAttempts, total, e);
+                failedBatch = List.of();
+                failedAttempts = 0;
+                return true;
+            }
+            long backoff = Math.min(MAX_BACKOFF_MS, 1000L << failedAttempts);
+            log.error("Failed to write {} audit entries (attempt {}), retrying in {} ms",
+                    batch.size(), failedAttempts, backoff, e);
+            failedBatch = batch;
+            retryAt = System.currentTimeMillis() + backoff;
+            return false;
+        }
+    }
+
+    private Long currentUserId() {
+        MagisterPrincipal principal = MagisterPrincipal.current();
+        return principal != null ? principal.userId() : null;
+    }
+
+    private AuditLogDTO mapToAuditLogDTO(AuditLog entry) {
+        AuditLogDTO dto = new AuditLogDTO();
+        dto.setId(entry.getId());
+        dto.setActorId(entry.getActorId());
+        dto.setAction(entry.getAction());
+        dto.setEntityType(entry.getEntityType());
+        dto.setEntityId(entry.getEntityId());
+        dto.setDetails(entry.getDetails());
+        dto.setCreatedAt(entry.getCreatedAt());
+        return dto;
+    }
+
+    /**
+     * Bounded multi-producer / single-consumer ring. Producers claim a slot with a CAS on
+     * head and then publish into it; the consumer treats an empty slot at tail as
+     * "claimed but not yet published" and stops there.
+     */
+    private static final class RingBuffer {
+        private final AtomicReferenceArray<AuditLog> slots;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        RingBuffer(int requestedCapacity) {
+            int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        boolean offer(AuditLog entry) {
+            while (true) {
+                long claim = head.get();
+                if (claim - tail.get() >= slots.length()) {
+                    return false;
+                }
+                if (head.compareAndSet(claim, claim + 1)) {
+                    slots.set((int) (claim & mask), entry);
+                    return true;
+                }
+            }
+        }
+
+        AuditLog poll() {
+            long current = tail.get();
+            int index = (int) (current & mask);
+            AuditLog entry = slots.get(index);
+            if (entry == null) {
+                return null;
+            }
+            slots.set(index, null);
+            tail.lazySet(current + 1);
+            return entry;
+        }
+    }
+}
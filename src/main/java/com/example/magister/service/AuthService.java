@@ -21,6 +21,9 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final VersionStampService versionStampService;
+    private final AuditService auditService;
+    private final SingleFlightService singleFlightService;
     
     @Transactional(readOnly = true)
     public LoginResponse login(LoginRequest request) {
@@ -33,7 +36,8 @@ public class AuthService {
             throw new BusinessException("Invalid email or password");
         }
         
-        String token = tokenProvider.generateToken(user.getEmail(), user.getId(), user.getRole().name());
+        String token = tokenProvider.generateToken(user.getEmail(), user.getId(), user.getRole().name(),
+                user.getTenantId());
         
         log.info("User {} logged in successfully", user.getEmail());
         
@@ -65,6 +69,8 @@ public class AuthService {
                 .build();
         
         user = userRepository.save(user);
+        auditService.record(AuditAction.USER_CREATED, "User", user.getId(),
+                String.format("email=%s role=%s self-registered", user.getEmail(), user.getRole()));
         log.info("User registered successfully: {}", user.getEmail());
         
         return mapToUserDTO(user);
@@ -95,6 +101,10 @@ public class AuthService {
         }
         
         user = userRepository.save(user);
+        versionStampService.studentChanged(userId);
+        versionStampService.catalogChanged();
+        singleFlightService.invalidate(GroupService.GROUP, GroupService.GROUP_STUDENTS, CoinService.LEADERBOARD);
+        auditService.record(AuditAction.USER_UPDATED, "User", userId, "profile updated");
         return mapToUserDTO(user);
     }
     
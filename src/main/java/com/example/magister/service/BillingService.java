@@ -0,0 +1,116 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.DebtorPageDTO;
+import com.example.magister.dto.EnrollmentBalanceDTO;
+import com.example.magister.entity.EnrollmentStatus;
+import com.example.magister.entity.GroupStudent;
+import com.example.magister.exception.BusinessException;
+import com.example.magister.repository.GroupStudentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Outstanding balance per enrollment.
+ *
+ * Each enrollment is charged its group's monthly fee for every started month between
+ * enrolledAt and completedAt (or today). Charges are accrued incrementally: billed_months
+ * remembers how far an enrollment has been billed, so the daily job and the accrual after an
+ * enrollment or fee change only touch rows that crossed into a new month. Payments adjust
+ * paid_amount and balance in place (see PaymentService), which keeps the debtors query a
+ * plain indexed read instead of a recomputation over all payments.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BillingService {
+
+    private static final Set<String> SORTABLE = Set.of("balance", "chargedAmount", "paidAmount", "enrolledAt");
+
+    private final GroupStudentRepository groupStudentRepository;
+
+    @Scheduled(cron = "${app.billing.accrual-cron:0 5 0 * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void accrueAll() {
+        int billed = groupStudentRepository.accrueCharges(null);
+        log.info("Billing accrual charged {} enrollments", billed);
+    }
+
+    // Called inside the enrolling / fee-changing transaction so the new charge commits with it
+    @Transactional
+    public void accrueGroup(Long groupId) {
+        groupStudentRepository.accrueCharges(groupId);
+    }
+
+    @Transactional
+    public void applyPayment(Long groupId, Long studentId, BigDecimal amount) {
+        groupStudentRepository.applyPayment(groupId, studentId, amount);
+    }
+
+    @Transactional
+    public void rebuildBalances() {
+        log.info("Rebuilding enrollment balances from payments");
+        groupStudentRepository.resetBalancesFromPayments();
+        groupStudentRepository.accrueCharges(null);
+    }
+
+    @Transactional(readOnly = true)
+    public DebtorPageDTO getDebtors(BigDecimal minBalance, Long groupId, EnrollmentStatus status,
+                                    String sort, Sort.Direction direction, int page, int size) {
+        if (!SORTABLE.contains(sort)) {
+            throw new BusinessException("sort must be one of " + SORTABLE);
+        }
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, 200)),
+                Sort.by(direction, sort).and(Sort.by("id")));
+
+        Page<GroupStudent> debtors = groupStudentRepository.findDebtors(
+                minBalance != null ? minBalance : BigDecimal.ZERO, groupId, status, pageRequest);
+
+        DebtorPageDTO dto = new DebtorPageDTO();
+        dto.setItems(debtors.getContent().stream().map(this::mapToBalanceDTO).collect(Collectors.toList()));
+        dto.setPage(debtors.getNumber());
+        dto.setSize(debtors.getSize());
+        dto.setTotalElements(debtors.getTotalElements());
+        dto.setTotalPages(debtors.getTotalPages());
+        return dto;
+    }
+
+    @Transactional(readOnly = true)
+    public List<EnrollmentBalanceDTO> getBalancesByStudent(Long studentId) {
+        return groupStudentRepository.findWithGroupByStudentId(studentId).stream()
+                .map(this::mapToBalanceDTO)
+                .collect(Collectors.toList());
+    }
+
+    private EnrollmentBalanceDTO mapToBalanceDTO(GroupStudent enrollment) {
+        EnrollmentBalanceDTO dto = new EnrollmentBalanceDTO();
+        dto.setEnrollmentId(enrollment.getId());
+        dto.setStudentId(enrollment.getStudent().getId());
+        dto.setStudentName(enrollment.getStudent().getFullName());
+        dto.setStudentPhone(enrollment.getStudent().getPhone());
+        dto.setGroupId(enrollment.getGroup().getId());
+        dto.setGroupName(enrollment.getGroup().getName());
+        dto.setStatus(enrollment.getStatus());
+        dto.setEnrolledAt(enrollment.getEnrolledAt());
+        dto.setCompletedAt(enrollment.getCompletedAt());
+        dto.setMonthlyFee(enrollment.getGroup().getMonthlyFee());
+        dto.setBilledMonths(enrollment.getBilledMonths());
+        dto.setChargedAmount(enrollment.getChargedAmount());
+        dto.setPaidAmount(enrollment.getPaidAmount());
+        dto.setBalance(enrollment.getBalance());
+        return dto;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.CoinLedgerMismatchDTO;
+import com.example.magister.dto.CoinLedgerReportDTO;
+import com.example.magister.repository.CoinBalanceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks coin_balances against the coins ledger.
+ *
+ * A scheduled job (app.coins.ledger.verify-cron) compares every (student, group) row with the
+ * sums of its awards (earned) and redemptions (spent) in one statement and logs the pairs
+ * that drifted; with app.coins.ledger.repair=true it then rebuilds the balances from those
+ * two tables. The latest report is kept for the admin API.
+ */
+@Service
+@Slf4j
+public class CoinLedgerService {
+
+    private final CoinBalanceRepository coinBalanceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SingleFlightService singleFlightService;
+    private final VersionStampService versionStampService;
+    private final AtomicReference<CoinLedgerReportDTO> lastReport = new AtomicReference<>();
+
+    @Value("${app.coins.ledger.repair:false}")
+    private boolean repair;
+
+    @Value("${app.coins.ledger.report-limit:100}")
+    private int reportLimit;
+
+    public CoinLedgerService(CoinBalanceRepository coinBalanceRepository,
+                             PlatformTransactionManager transactionManager,
+                             SingleFlightService singleFlightService,
+                             VersionStampService versionStampService) {
+        this.coinBalanceRepository = coinBalanceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.singleFlightService = singleFlightService;
+        this.versionStampService = versionStampService;
+    }
+
+    @Scheduled(cron = "${app.coins.ledger.verify-cron:0 15 4 * * *}")
+    public void scheduledVerify() {
+        try {
+            verify(repair);
+        } catch (RuntimeException e) {
+            log.error("Coin ledger verification failed", e);
+        }
+    }
+
+    public CoinLedgerReportDTO verify(boolean repairMismatches) {
+        List<Object[]> rows = coinBalanceRepository.findLedgerMismatches();
+
+        CoinLedgerReportDTO report = new CoinLedgerReportDTO();
+        report.setCheckedAt(LocalDateTime.now());
+        report.setMismatchCount(rows.size());
+        report.setMismatches(rows.stream().limit(reportLimit).map(this::mapToMismatchDTO).toList());
+
+        if (!rows.isEmpty()) {
+            log.error("Coin ledger check: {} (student, group) balances differ from the coins ledger, first: {}",
+                    rows.size(), report.getMismatches().get(0));
+            if (repairMismatches) {
+                rebuild();
+                report.setRepaired(true);
+            }
+        } else {
+            log.info("Coin ledger check: balances match the coins ledger");
+        }
+        lastReport.set(report);
+        return report;
+    }
+
+    public CoinLedgerReportDTO getLastReport() {
+        return lastReport.get();
+    }
+
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            log.info("Rebuilding coin balances from coins and redemptions");
+            coinBalanceRepository.lockForRebuild();
+            coinBalanceRepository.deleteAllBalances();
+            coinBalanceRepository.rebuildFromLedger();
+        });
+        versionStampService.catalogChanged();
+        singleFlightService.invalidate(CoinService.LEADERBOARD);
+    }
+
+    private CoinLedgerMismatchDTO mapToMismatchDTO(Object[] row) {
+        CoinLedgerMismatchDTO dto = new CoinLedgerMismatchDTO();
+        dto.setStudentId(toLong(row[0]));
+        dto.setGroupId(toLong(row[1]));
+        dto.setEarned(toLong(row[2]));
+        dto.setSpent(toLong(row[3]));
+        dto.setBalance(toLong(row[4]));
+        dto.setLedgerTotal(toLong(row[5]));
+        dto.setRedeemedTotal(toLong(row[6]));
+        return dto;
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+}
@@ -5,13 +5,16 @@ import com.example.magister.dto.CoinDTO;
 import com.example.magister.dto.CoinSummary;
 import com.example.magister.dto.CoinsByGroupDTO;
 import com.example.magister.dto.LeaderboardEntryDTO;
+import com.example.magister.entity.AuditAction;
 import com.example.magister.entity.Coin;
+import com.example.magister.entity.CoinBalance;
 import com.example.magister.entity.EnrollmentStatus;
 import com.example.magister.entity.Group;
 import com.example.magister.entity.User;
 import com.example.magister.exception.BusinessException;
 import com.example.magister.exception.ResourceNotFoundException;
 import com.example.magister.exception.UnauthorizedException;
+import com.example.magister.repository.CoinBalanceRepository;
 import com.example.magister.repository.CoinRepository;
 import com.example.magister.repository.GroupRepository;
 import com.example.magister.repository.GroupStudentRepository;
@@ -32,10 +35,18 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CoinService {
 
+    static final String LEADERBOARD = "coins.leaderboard";
+
     private final CoinRepository coinRepository;
+    private final CoinBalanceRepository coinBalanceRepository;
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
     private final GroupStudentRepository groupStudentRepository;
+    private final VersionStampService versionStampService;
+    private final StudentEventService studentEventService;
+    private final OutboxService outboxService;
+    private final AuditService auditService;
+    private final SingleFlightService singleFlightService;
 
     @Transactional
     public CoinDTO awardCoins(AwardCoinsRequest request, Long teacherId) {
@@ -76,9 +87,17 @@ public class CoinService {
                 .build();
 
         coin = coinRepository.save(coin);
+        coinBalanceRepository.applyAward(group.getTenantId(), student.getId(), group.getId(), coin.getAmount());
+        versionStampService.studentChanged(student.getId());
+        singleFlightService.invalidate(LEADERBOARD);
+        auditService.record(AuditAction.COINS_AWARDED, "Coin", coin.getId(), String.format(
+                "student=%d group=%d amount=%d", student.getId(), group.getId(), coin.getAmount()));
         log.info("Coins awarded successfully");
 
-        return mapToCoinDTO(coin);
+        CoinDTO dto = mapToCoinDTO(coin);
+        studentEventService.publish(student.getId(), StudentEventService.COIN_AWARDED, group.getId(), dto);
+        outboxService.publish(OutboxService.COIN, coin.getId(), StudentEventService.COIN_AWARDED, dto);
+        return dto;
     }
 
     @Transactional(readOnly = true)
@@ -105,19 +124,22 @@ public class CoinService {
 
     @Transactional(readOnly = true)
     public List<CoinsByGroupDTO> getCoinsByStudentGrouped(Long studentId) {
-        List<Coin> coins = coinRepository.findByStudentId(studentId);
-
-        Map<Long, List<Coin>> coinsByGroup = coins.stream()
-                .collect(Collectors.groupingBy(coin -> coin.getGroup().getId()));
+        Map<Long, List<CoinDTO>> coinsByGroup = coinRepository.findByStudentId(studentId).stream()
+                .collect(Collectors.groupingBy(coin -> coin.getGroup().getId(),
+                        Collectors.mapping(this::mapToCoinDTO, Collectors.toList())));
 
         List<CoinsByGroupDTO> result = new ArrayList<>();
-        for (Map.Entry<Long, List<Coin>> entry : coinsByGroup.entrySet()) {
-            List<Coin> groupCoins = entry.getValue();
+        for (CoinBalance balance : coinBalanceRepository.findWithGroupByStudentId(studentId)) {
+            List<CoinDTO> groupCoins = coinsByGroup.getOrDefault(balance.getGroup().getId(), List.of());
+            if (balance.getEarned() == 0 && groupCoins.isEmpty()) {
+                continue;
+            }
             CoinsByGroupDTO dto = new CoinsByGroupDTO();
-            dto.setGroupId(entry.getKey());
-            dto.setGroupName(groupCoins.get(0).getGroup().getName());
-            dto.setTotalCoins(groupCoins.stream().mapToInt(Coin::getAmount).sum());
-            dto.setCoins(groupCoins.stream().map(this::mapToCoinDTO).collect(Collectors.toList()));
+            dto.setGroupId(balance.getGroup().getId());
+            dto.setGroupName(balance.getGroup().getName());
+            dto.setTotalCoins(balance.getEarned().intValue());
+            dto.setBalance(balance.getBalance().intValue());
+            dto.setCoins(groupCoins);
             result.add(dto);
         }
 
@@ -133,31 +155,24 @@ public class CoinService {
 
     @Transactional(readOnly = true)
     public Integer getTotalCoinsByStudent(Long studentId) {
-        Integer total = coinRepository.getTotalCoinsByStudent(studentId);
-        return total != null ? total : 0;
+        return coinBalanceRepository.getTotalEarnedByStudent(studentId).intValue();
     }
 
     @Transactional(readOnly = true)
     public CoinSummary getCoinSummary(Long studentId) {
-        List<Coin> coins = coinRepository.findByStudentId(studentId);
-
-        Integer totalCoins = coins.stream()
-                .mapToInt(Coin::getAmount)
-                .sum();
-
         CoinSummary summary = new CoinSummary();
-        summary.setTotalCoins(totalCoins);
+        summary.setTotalCoins(coinBalanceRepository.getTotalEarnedByStudent(studentId).intValue());
+        summary.setBalance(coinBalanceRepository.getTotalBalanceByStudent(studentId).intValue());
         summary.setRecentCoins(
-                coins.stream()
-                        .sorted((a, b) -> b.getAwardedDate().compareTo(a.getAwardedDate()))
-                        .limit(10)
+                coinRepository.findTop10ByStudentIdOrderByAwardedDateDesc(studentId).stream()
                         .map(this::mapToCoinDTO)
                         .collect(Collectors.toList()));
 
         return summary;
     }
 
-    @Transactional(readOnly = true)
+    // No surrounding transaction (and open-in-view is off): a class full of students opening
+    // the leaderboard together should wait on one shared query, not each hold a connection
     public List<LeaderboardEntryDTO> getGroupLeaderboardForStudent(Long studentId, Long groupId) {
         groupRepository.findById(groupId)
                 .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
@@ -170,19 +185,19 @@ public class CoinService {
         return getGroupLeaderboard(groupId);
     }
 
-    @Transactional(readOnly = true)
     public List<LeaderboardEntryDTO> getGroupLeaderboard(Long groupId) {
-        List<Object[]> results = coinRepository.getLeaderboardByGroup(groupId);
+        return singleFlightService.read(LEADERBOARD, groupId, () -> loadGroupLeaderboard(groupId));
+    }
+
+    private List<LeaderboardEntryDTO> loadGroupLeaderboard(Long groupId) {
+        List<Object[]> results = coinBalanceRepository.getLeaderboardByGroup(groupId);
 
         return results.stream()
                 .map(result -> {
-                    User student = (User) result[0];
-                    Long total = (Long) result[1];
-
                     LeaderboardEntryDTO entry = new LeaderboardEntryDTO();
-                    entry.setStudentId(student.getId());
-                    entry.setStudentName(student.getFullName());
-                    entry.setTotalCoins(total.intValue());
+                    entry.setStudentId((Long) result[0]);
+                    entry.setStudentName((String) result[1]);
+                    entry.setTotalCoins(((Long) result[2]).intValue());
                     return entry;
                 })
                 .collect(Collectors.toList());
@@ -1,7 +1,6 @@
 package com.example.magister.service;
 
 import com.example.magister.dto.*;
-import com.example.magister.entity.GroupStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,6 +18,7 @@ public class DashboardService {
     private final AttendanceService attendanceService;
     private final PaymentService paymentService;
     private final CoinService coinService;
+    private final AdminMetricsService adminMetricsService;
 
     @Transactional(readOnly = true)
     public StudentDashboardDTO getStudentDashboard(Long studentId) {
@@ -70,21 +70,13 @@ public class DashboardService {
         return dashboard;
     }
 
-    @Transactional(readOnly = true)
+    // Served from the precomputed snapshot; see AdminMetricsService
     public AdminDashboardDTO getAdminDashboard() {
-        log.info("Fetching admin dashboard");
-
-        AdminDashboardDTO dashboard = new AdminDashboardDTO();
-
-        // Get all groups
-        List<GroupDTO> allGroups = groupService.getAllGroups();
-        dashboard.setTotalGroups(allGroups.size());
-        dashboard.setActiveGroups((int) allGroups.stream()
-                .filter(g -> g.getStatus() == GroupStatus.ACTIVE)
-                .count());
-
-        // Removed pending payments logic as the feature is deleted
+        return adminMetricsService.getDashboard();
+    }
 
-        return dashboard;
+    public AdminDashboardDTO refreshAdminDashboard() {
+        log.info("Refreshing admin dashboard on demand");
+        return adminMetricsService.refreshDashboard();
     }
-}
\ No newline at end of file
+}
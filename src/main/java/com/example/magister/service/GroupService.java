@@ -1,9 +1,13 @@
 package com.example.magister.service;
 
 import com.example.magister.dto.CreateGroupRequest;
+import com.example.magister.dto.EnrollmentBatchResultDTO;
+import com.example.magister.dto.EnrollmentOutcome;
+import com.example.magister.dto.EnrollmentOutcomeDTO;
 import com.example.magister.dto.GroupDTO;
 import com.example.magister.dto.UpdateGroupRequest;
 import com.example.magister.dto.UserDTO;
+import com.example.magister.entity.AuditAction;
 import com.example.magister.entity.EnrollmentStatus;
 import com.example.magister.entity.Group;
 import com.example.magister.entity.GroupStatus;
@@ -18,12 +22,20 @@ import com.example.magister.repository.GroupStudentRepository;
 import com.example.magister.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,9 +43,20 @@ import java.util.stream.Collectors;
 @Slf4j
 public class GroupService {
 
+    static final String GROUP = "groups.byId";
+    static final String GROUP_STUDENTS = "groups.students";
+
     private final GroupRepository groupRepository;
     private final GroupStudentRepository groupStudentRepository;
     private final UserRepository userRepository;
+    private final VersionStampService versionStampService;
+    private final AuditService auditService;
+    private final BillingService billingService;
+    private final SingleFlightService singleFlightService;
+    private final OutboxService outboxService;
+
+    @Value("${app.groups.max-batch-size:500}")
+    private int maxBatchSize;
 
     @Transactional
     public GroupDTO createGroup(CreateGroupRequest request) {
@@ -47,6 +70,8 @@ public class GroupService {
         User teacher = userRepository.findById(request.getTeacherId())
                 .orElseThrow(() -> new ResourceNotFoundException("Teacher", "id", request.getTeacherId()));
 
+        validateMonthlyFee(request.getMonthlyFee());
+
         if (teacher.getRole() != UserRole.TEACHER) {
             throw new BusinessException("User is not a teacher");
         }
@@ -69,15 +94,23 @@ public class GroupService {
                 .description(request.getDescription())
                 .teacher(teacher)
                 .schedule(request.getSchedule())
+                .monthlyFee(request.getMonthlyFee())
                 .status(GroupStatus.ACTIVE)
                 .createdAt(LocalDateTime.now())
                 .students(new HashSet<>())
                 .build();
 
         group = groupRepository.save(group);
+        versionStampService.teacherChanged(teacher.getId());
+        versionStampService.catalogChanged();
+        singleFlightService.invalidate(GROUP, GROUP_STUDENTS);
+        auditService.record(AuditAction.GROUP_CREATED, "Group", group.getId(),
+                String.format("name=%s teacher=%d", group.getName(), teacher.getId()));
         log.info("Group created: {}", group.getName());
 
-        return mapToGroupDTO(group);
+        GroupDTO dto = mapToGroupDTO(group);
+        outboxService.publish(OutboxService.GROUP, group.getId(), OutboxService.GROUP_CREATED, dto);
+        return dto;
     }
 
     @Transactional
@@ -114,9 +147,26 @@ public class GroupService {
         if (request.getStatus() != null) {
             group.setStatus(request.getStatus());
         }
+        boolean feeChanged = request.getMonthlyFee() != null
+                && (group.getMonthlyFee() == null || request.getMonthlyFee().compareTo(group.getMonthlyFee()) != 0);
+        if (feeChanged) {
+            validateMonthlyFee(request.getMonthlyFee());
+            group.setMonthlyFee(request.getMonthlyFee());
+        }
 
         group = groupRepository.save(group);
-        return mapToGroupDTO(group);
+        if (feeChanged) {
+            // Months already billed keep their old price; anything not yet billed uses the new fee
+            billingService.accrueGroup(group.getId());
+        }
+        versionStampService.teacherChanged(group.getTeacher().getId());
+        versionStampService.catalogChanged();
+        singleFlightService.invalidate(GROUP, GROUP_STUDENTS);
+        auditService.record(AuditAction.GROUP_UPDATED, "Group", group.getId(),
+                String.format("name=%s status=%s", group.getName(), group.getStatus()));
+        GroupDTO dto = mapToGroupDTO(group);
+        outboxService.publish(OutboxService.GROUP, group.getId(), OutboxService.GROUP_UPDATED, dto);
+        return dto;
     }
 
     @Transactional
@@ -128,8 +178,7 @@ public class GroupService {
     public void enrollStudent(Long groupId, Long studentId, Long currentUserId) {
         log.info("Enrolling student {} in group {}", studentId, groupId);
 
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
+        Group group = lockGroup(groupId);
 
         User student = userRepository.findById(studentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Student", "id", studentId));
@@ -138,17 +187,7 @@ public class GroupService {
             throw new BusinessException("User is not a student");
         }
 
-        // If currentUserId is provided, verify authorization
-        if (currentUserId != null) {
-            User currentUser = userRepository.findById(currentUserId)
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", currentUserId));
-
-            // Teachers can only enroll students in their own groups
-            if (currentUser.getRole() == UserRole.TEACHER &&
-                    !group.getTeacher().getId().equals(currentUserId)) {
-                throw new UnauthorizedException("You can only enroll students in your own groups");
-            }
-        }
+        checkCanManage(group, currentUserId, "You can only enroll students in your own groups");
 
         if (groupStudentRepository.existsByGroupIdAndStudentId(groupId, studentId)) {
             throw new BusinessException("Student is already enrolled in this group");
@@ -161,7 +200,16 @@ public class GroupService {
                 .status(EnrollmentStatus.ACTIVE)
                 .build();
 
-        groupStudentRepository.save(enrollment);
+        enrollment = groupStudentRepository.save(enrollment);
+        billingService.accrueGroup(groupId);
+        versionStampService.studentChanged(studentId);
+        versionStampService.teacherChanged(group.getTeacher().getId());
+        versionStampService.catalogChanged();
+        singleFlightService.invalidate(GROUP, GROUP_STUDENTS);
+        auditService.record(AuditAction.STUDENT_ENROLLED, "GroupStudent", enrollment.getId(),
+                String.format("student=%d group=%d", studentId, groupId));
+        outboxService.publish(OutboxService.GROUP, groupId, OutboxService.STUDENTS_ENROLLED,
+                Map.of("studentIds", List.of(studentId)));
         log.info("Student enrolled successfully");
     }
 
@@ -172,20 +220,8 @@ public class GroupService {
 
     @Transactional
     public void removeStudent(Long groupId, Long studentId, Long currentUserId) {
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
-
-        // If currentUserId is provided, verify authorization
-        if (currentUserId != null) {
-            User currentUser = userRepository.findById(currentUserId)
-                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", currentUserId));
-
-            // Teachers can only remove students from their own groups
-            if (currentUser.getRole() == UserRole.TEACHER &&
-                    !group.getTeacher().getId().equals(currentUserId)) {
-                throw new UnauthorizedException("You can only remove students from your own groups");
-            }
-        }
+        Group group = lockGroup(groupId);
+        checkCanManage(group, currentUserId, "You can only remove students from your own groups");
 
         GroupStudent enrollment = groupStudentRepository.findByGroupIdAndStudentId(groupId, studentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment", "groupId-studentId",
@@ -193,11 +229,235 @@ public class GroupService {
 
         enrollment.setStatus(EnrollmentStatus.DROPPED);
         enrollment.setCompletedAt(LocalDateTime.now());
-        groupStudentRepository.save(enrollment);
+        enrollment = groupStudentRepository.save(enrollment);
+        billingService.accrueGroup(groupId);
+        versionStampService.studentChanged(studentId);
+        versionStampService.teacherChanged(group.getTeacher().getId());
+        versionStampService.catalogChanged();
+        singleFlightService.invalidate(GROUP, GROUP_STUDENTS);
+        auditService.record(AuditAction.STUDENT_REMOVED, "GroupStudent", enrollment.getId(),
+                String.format("student=%d group=%d", studentId, groupId));
+        outboxService.publish(OutboxService.GROUP, groupId, OutboxService.STUDENTS_REMOVED,
+                Map.of("studentIds", List.of(studentId)));
 
         log.info("Student {} removed from group {}", studentId, groupId);
     }
 
+    /**
+     * Enrolls many students in one transaction with a single INSERT ... SELECT. Students that
+     * cannot be enrolled are reported in the result instead of failing the batch; only an
+     * unknown group or a teacher acting on someone else's group rejects the whole request.
+     */
+    @Transactional
+    public EnrollmentBatchResultDTO enrollStudents(Long groupId, List<Long> studentIds, Long currentUserId) {
+        Set<Long> ids = requireBatch(studentIds);
+        Group group = lockGroup(groupId);
+        checkCanManage(group, currentUserId, "You can only enroll students in your own groups");
+
+        Map<Long, EnrollmentOutcome> outcomes = initialOutcomes(ids);
+        List<Long> toEnroll = new ArrayList<>();
+        for (Object[] row : groupStudentRepository.findEnrollmentCandidates(groupId, ids)) {
+            Long studentId = (Long) row[0];
+            EnrollmentStatus status = (EnrollmentStatus) row[2];
+            if (row[1] != UserRole.STUDENT) {
+                outcomes.put(studentId, EnrollmentOutcome.NOT_A_STUDENT);
+            } else if (status == EnrollmentStatus.ACTIVE) {
+                outcomes.put(studentId, EnrollmentOutcome.ALREADY_ENROLLED);
+            } else if (status != null) {
+                outcomes.put(studentId, EnrollmentOutcome.PREVIOUSLY_ENROLLED);
+            } else {
+                outcomes.put(studentId, EnrollmentOutcome.ENROLLED);
+                toEnroll.add(studentId);
+            }
+        }
+
+        int changed = 0;
+        if (!toEnroll.isEmpty()) {
+            List<Object[]> enrolled = groupStudentRepository.enrollAll(groupId, toEnroll);
+            changed = enrolled.size();
+            billingService.accrueGroup(groupId);
+            enrollmentsChanged(group, toEnroll);
+            for (Object[] row : enrolled) {
+                auditService.record(AuditAction.STUDENT_ENROLLED, "GroupStudent", toLong(row[0]),
+                        String.format("student=%d group=%d", toLong(row[1]), groupId));
+            }
+            outboxService.publish(OutboxService.GROUP, groupId, OutboxService.STUDENTS_ENROLLED,
+                    Map.of("studentIds", toEnroll));
+        }
+        log.info("Batch enrollment in group {}: {} of {} students enrolled", groupId, changed, ids.size());
+        return toBatchResult(groupId, null, changed, outcomes);
+    }
+
+    /**
+     * Drops many students from a group in one transaction with a single UPDATE, reporting
+     * students that were not enrolled or already dropped instead of failing the batch.
+     */
+    @Transactional
+    public EnrollmentBatchResultDTO removeStudents(Long groupId, List<Long> studentIds, Long currentUserId) {
+        Set<Long> ids = requireBatch(studentIds);
+        Group group = lockGroup(groupId);
+        checkCanManage(group, currentUserId, "You can only remove students from your own groups");
+
+        Map<Long, EnrollmentOutcome> outcomes = initialOutcomes(ids);
+        List<Long> toRemove = new ArrayList<>();
+        for (Object[] row : groupStudentRepository.findEnrollmentCandidates(groupId, ids)) {
+            Long studentId = (Long) row[0];
+            EnrollmentStatus status = (EnrollmentStatus) row[2];
+            if (status == null) {
+                outcomes.put(studentId, EnrollmentOutcome.NOT_ENROLLED);
+            } else if (status == EnrollmentStatus.DROPPED) {
+                outcomes.put(studentId, EnrollmentOutcome.ALREADY_REMOVED);
+            } else {
+                outcomes.put(studentId, EnrollmentOutcome.REMOVED);
+                toRemove.add(studentId);
+            }
+        }
+
+        int changed = 0;
+        if (!toRemove.isEmpty()) {
+            List<Object[]> dropped = groupStudentRepository.dropAll(groupId, toRemove);
+            changed = dropped.size();
+            billingService.accrueGroup(groupId);
+            enrollmentsChanged(group, toRemove);
+            for (Object[] row : dropped) {
+                auditService.record(AuditAction.STUDENT_REMOVED, "GroupStudent", toLong(row[0]),
+                        String.format("student=%d group=%d", toLong(row[1]), groupId));
+            }
+            outboxService.publish(OutboxService.GROUP, groupId, OutboxService.STUDENTS_REMOVED,
+                    Map.of("studentIds", toRemove));
+        }
+        log.info("Batch removal from group {}: {} of {} students removed", groupId, changed, ids.size());
+        return toBatchResult(groupId, null, changed, outcomes);
+    }
+
+    /**
+     * Moves every ACTIVE student of one group to another in one transaction: one INSERT ...
+     * SELECT enrolls them in the target group and one UPDATE drops them from the source.
+     * Students already active in the target are only dropped from the source; students with
+     * an earlier, finished enrollment in the target stay where they are.
+     */
+    @Transactional
+    public EnrollmentBatchResultDTO transferStudents(Long fromGroupId, Long toGroupId, Long currentUserId) {
+        if (fromGroupId.equals(toGroupId)) {
+            throw new BusinessException("Source and target group must be different");
+        }
+        // Always lock in id order so two opposite transfers cannot deadlock
+        Group first = lockGroup(Math.min(fromGroupId, toGroupId));
+        Group second = lockGroup(Math.max(fromGroupId, toGroupId));
+        Group from = first.getId().equals(fromGroupId) ? first : second;
+        Group to = first == from ? second : first;
+        checkCanManage(from, currentUserId, "You can only transfer students from your own groups");
+        checkCanManage(to, currentUserId, "You can only transfer students to your own groups");
+
+        Map<Long, EnrollmentOutcome> outcomes = new LinkedHashMap<>();
+        List<Long> moved = new ArrayList<>();
+        for (Object[] row : groupStudentRepository.findTransferCandidates(fromGroupId, toGroupId)) {
+            Long studentId = (Long) row[0];
+            EnrollmentStatus targetStatus = (EnrollmentStatus) row[1];
+            if (targetStatus == null) {
+                outcomes.put(studentId, EnrollmentOutcome.TRANSFERRED);
+                moved.add(studentId);
+            } else if (targetStatus == EnrollmentStatus.ACTIVE) {
+                outcomes.put(studentId, EnrollmentOutcome.ALREADY_ENROLLED);
+                moved.add(studentId);
+            } else {
+                outcomes.put(studentId, EnrollmentOutcome.PREVIOUSLY_ENROLLED);
+            }
+        }
+
+        int changed = 0;
+        if (!moved.isEmpty()) {
+            List<Object[]> enrolled = groupStudentRepository.copyActiveEnrollments(fromGroupId, toGroupId);
+            List<Object[]> dropped = groupStudentRepository.dropTransferred(fromGroupId, toGroupId);
+            changed = dropped.size();
+            billingService.accrueGroup(fromGroupId);
+            billingService.accrueGroup(toGroupId);
+            enrollmentsChanged(from, moved);
+            versionStampService.teacherChanged(to.getTeacher().getId());
+            for (Object[] row : dropped) {
+                auditService.record(AuditAction.STUDENT_REMOVED, "GroupStudent", toLong(row[0]),
+                        String.format("student=%d group=%d transferredTo=%d", toLong(row[1]), fromGroupId, toGroupId));
+            }
+            for (Object[] row : enrolled) {
+                auditService.record(AuditAction.STUDENT_ENROLLED, "GroupStudent", toLong(row[0]),
+                        String.format("student=%d group=%d transferredFrom=%d", toLong(row[1]), toGroupId, fromGroupId));
+            }
+            Map<String, Object> transfer = Map.of("fromGroupId", fromGroupId, "toGroupId", toGroupId,
+                    "studentIds", moved);
+            outboxService.publish(OutboxService.GROUP, fromGroupId, OutboxService.STUDENTS_TRANSFERRED, transfer);
+            outboxService.publish(OutboxService.GROUP, toGroupId, OutboxService.STUDENTS_TRANSFERRED, transfer);
+        }
+        log.info("Transfer from group {} to group {}: {} of {} active students moved",
+                fromGroupId, toGroupId, changed, outcomes.size());
+        return toBatchResult(fromGroupId, toGroupId, changed, outcomes);
+    }
+
+    // Row lock on the group: enrollment changes to one group run one at a time, so the
+    // candidate query of a batch still holds when its INSERT/UPDATE runs
+    private Group lockGroup(Long groupId) {
+        return groupRepository.findForUpdate(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
+    }
+
+    // Teachers can only change enrollments of their own groups
+    private void checkCanManage(Group group, Long currentUserId, String message) {
+        if (currentUserId == null) {
+            return;
+        }
+        User currentUser = userRepository.findById(currentUserId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", currentUserId));
+        if (currentUser.getRole() == UserRole.TEACHER &&
+                !group.getTeacher().getId().equals(currentUserId)) {
+            throw new UnauthorizedException(message);
+        }
+    }
+
+    private Set<Long> requireBatch(List<Long> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            throw new BusinessException("studentIds must not be empty");
+        }
+        Set<Long> ids = new LinkedHashSet<>(studentIds);
+        if (ids.contains(null)) {
+            throw new BusinessException("studentIds must not contain null");
+        }
+        if (ids.size() > maxBatchSize) {
+            throw new BusinessException("At most " + maxBatchSize + " students per request");
+        }
+        return ids;
+    }
+
+    // Ids the candidate query does not return do not exist (in this branch)
+    private Map<Long, EnrollmentOutcome> initialOutcomes(Set<Long> ids) {
+        Map<Long, EnrollmentOutcome> outcomes = new LinkedHashMap<>();
+        for (Long id : ids) {
+            outcomes.put(id, EnrollmentOutcome.NOT_FOUND);
+        }
+        return outcomes;
+    }
+
+    private void enrollmentsChanged(Group group, Collection<Long> studentIds) {
+        studentIds.forEach(versionStampService::studentChanged);
+        versionStampService.teacherChanged(group.getTeacher().getId());
+        versionStampService.catalogChanged();
+        singleFlightService.invalidate(GROUP, GROUP_STUDENTS);
+    }
+
+    private EnrollmentBatchResultDTO toBatchResult(Long groupId, Long targetGroupId, int changed,
+                                                   Map<Long, EnrollmentOutcome> outcomes) {
+        EnrollmentBatchResultDTO dto = new EnrollmentBatchResultDTO();
+        dto.setGroupId(groupId);
+        dto.setTargetGroupId(targetGroupId);
+        dto.setChanged(changed);
+        dto.setResults(outcomes.entrySet().stream()
+                .map(entry -> new EnrollmentOutcomeDTO(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList()));
+        return dto;
+    }
+
+    private static Long toLong(Object value) {
+        return ((Number) value).longValue();
+    }
+
     @Transactional(readOnly = true)
     public List<GroupDTO> getAllGroups() {
         return groupRepository.findAll().stream()
@@ -205,11 +465,9 @@ public class GroupService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
     public GroupDTO getGroupById(Long groupId) {
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
-        return mapToGroupDTO(group);
+        return singleFlightService.read(GROUP, groupId, () -> mapToGroupDTO(groupRepository.findById(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId))));
     }
 
     @Transactional(readOnly = true)
@@ -227,8 +485,11 @@ public class GroupService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
     public List<UserDTO> getGroupStudents(Long groupId) {
+        return singleFlightService.read(GROUP_STUDENTS, groupId, () -> loadGroupStudents(groupId));
+    }
+
+    private List<UserDTO> loadGroupStudents(Long groupId) {
         return groupStudentRepository.findByGroupIdAndStatus(groupId, EnrollmentStatus.ACTIVE)
                 .stream()
                 .map(gs -> {
@@ -244,6 +505,12 @@ public class GroupService {
                 .collect(Collectors.toList());
     }
 
+    private void validateMonthlyFee(BigDecimal monthlyFee) {
+        if (monthlyFee != null && monthlyFee.signum() < 0) {
+            throw new BusinessException("Monthly fee must not be negative");
+        }
+    }
+
     /**
      * OPTIMIZATSIYA QILINGAN: Group entity ni DTO ga map qilish
      * Avval: group.getStudents() ishlatib, Lazy Loading tufayli 0 qaytardi
@@ -257,6 +524,7 @@ public class GroupService {
         dto.setTeacherId(group.getTeacher().getId());
         dto.setTeacherName(group.getTeacher().getFullName());
         dto.setSchedule(group.getSchedule());
+        dto.setMonthlyFee(group.getMonthlyFee());
         dto.setStatus(group.getStatus());
 
         // YECHIM: Repository dan to'g'ridan-to'g'ri count olamiz
@@ -0,0 +1,257 @@
+package com.example.magister.service;
+
+import com.example.magister.exception.BusinessException;
+import com.example.magister.exception.ConflictException;
+import com.example.magister.exception.ServiceUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes create endpoints safe to retry with an Idempotency-Key header.
+ *
+ * The first request for a key runs the action; concurrent duplicates wait for it and later
+ * retries get the stored result, so a flaky network never produces a second insert. Keys are
+ * scoped per endpoint and per user, expire after app.idempotency.ttl-minutes, and a key reused
+ * with a different request body is rejected with 409. Bodies are compared by the SHA-256 of
+ * their canonical JSON (sorted fields, decimals without trailing zeros), so 100 and 100.00 are
+ * the same amount and two different bodies never pass as one. A duplicate waits at most
+ * app.idempotency.wait-timeout-ms for the first request and is then answered with 409 so
+ * the client retries later instead of holding a thread on a stuck request.
+ *
+ * Entries live in memory until they expire; an unexpired key is never evicted early, since
+ * that would let a late retry insert a duplicate. When app.idempotency.max-entries keys are
+ * live, new keys are rejected with 503. With app.idempotency.persist=true the key is also
+ * claimed in the idempotency_keys table inside the same transaction as the write, which
+ * survives restarts and works across instances: the primary key is the only dedupe check,
+ * so over the cap new keys skip the in-memory entry instead of being rejected.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${app.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${app.idempotency.persist:false}")
+    private boolean persist;
+
+    public IdempotencyService(ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T execute(String scope, Long userId, String idempotencyKey, Object request,
+                         Class<T> resultType, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String storeKey = scope + ":" + userId + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+        LocalDateTime now = LocalDateTime.now();
+        Entry entry = new Entry(fingerprint, now.plusMinutes(ttlMinutes));
+
+        if (!entries.containsKey(storeKey) && !hasRoom(now)) {
+            if (!persist) {
+                throw new ServiceUnavailableException("Too many idempotency keys in use, please retry later");
+            }
+            return executePersistent(storeKey, fingerprint, now, resultType, action);
+        }
+
+        Entry existing;
+        while ((existing = entries.putIfAbsent(storeKey, entry)) != null) {
+            if (!existing.isExpired(now)) {
+                checkFingerprint(existing.fingerprint, fingerprint);
+                return resultType.cast(existing.await(waitTimeoutMs));
+            }
+            entries.remove(storeKey, existing);
+        }
+
+        try {
+            T result = persist
+                    ? executePersistent(storeKey, fingerprint, now, resultType, action)
+                    : action.get();
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            // Failed attempts are not remembered, so the client can retry with the same key
+            entries.remove(storeKey, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        if (persist) {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.valueOf(now));
+        }
+    }
+
+    private <T> T executePersistent(String storeKey, String fingerprint, LocalDateTime now,
+                                    Class<T> resultType, Supplier<T> action) {
+        return transactionTemplate.execute(status -> {
+            // A concurrent duplicate blocks on the primary key until this transaction ends
+            int claimed = jdbcTemplate.update(
+                    "INSERT INTO idempotency_keys (store_key, request_hash, expires_at) VALUES (?, ?, ?) " +
+                            "ON CONFLICT (store_key) DO UPDATE SET request_hash = EXCLUDED.request_hash, " +
+                            "expires_at = EXCLUDED.expires_at, response = NULL " +
+                            "WHERE idempotency_keys.expires_at < ?",
+                    storeKey, fingerprint, Timestamp.valueOf(now.plusMinutes(ttlMinutes)), Timestamp.valueOf(now));
+
+            if (claimed == 0) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                        "SELECT request_hash, response FROM idempotency_keys WHERE store_key = ?", storeKey);
+                if (!rows.isEmpty() && rows.get(0).get("response") != null) {
+                    checkFingerprint((String) rows.get(0).get("request_hash"), fingerprint);
+                    return fromJson((String) rows.get(0).get("response"), resultType);
+                }
+            }
+
+            T result = action.get();
+            jdbcTemplate.update("UPDATE idempotency_keys SET response = ? WHERE store_key = ?",
+                    toJson(result), storeKey);
+            return result;
+        });
+    }
+
+    // A key stored before request hashes were kept (stored == null) returns its result unchecked
+    private void checkFingerprint(String stored, String incoming) {
+        if (stored != null && !stored.equals(incoming)) {
+            throw new ConflictException("Idempotency-Key was already used with a different request");
+        }
+    }
+
+    // Keeps memory bounded under a flood of unique keys; only expired entries are dropped
+    private boolean hasRoom(LocalDateTime now) {
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        return entries.size() < maxEntries;
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(canonical(objectMapper.valueToTree(request)));
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint idempotent request", e);
+        }
+    }
+
+    private JsonNode canonical(JsonNode node) {
+        if (node.isObject()) {
+            Map<String, JsonNode> fields = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+            while (iterator.hasNext()) {
+                Map.Entry<String, JsonNode> field = iterator.next();
+                fields.put(field.getKey(), canonical(field.getValue()));
+            }
+            ObjectNode sorted = objectMapper.createObjectNode();
+            sorted.setAll(fields);
+            return sorted;
+        }
+        if (node.isArray()) {
+            ArrayNode array = objectMapper.createArrayNode();
+            node.forEach(element -> array.add(canonical(element)));
+            return array;
+        }
+        if (node.isBigDecimal()) {
+            return DecimalNode.valueOf(node.decimalValue().stripTrailingZeros());
+        }
+        return node;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent response", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored idempotent response", e);
+        }
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final LocalDateTime expiresAt;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(String fingerprint, LocalDateTime expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(LocalDateTime now) {
+            return now.isAfter(expiresAt);
+        }
+
+        Object await(long timeoutMs) {
+            try {
+                return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new ConflictException("A request with this Idempotency-Key is still in progress, please retry");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while waiting for the original request");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
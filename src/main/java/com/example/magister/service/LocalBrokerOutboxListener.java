@@ -0,0 +1,89 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.OutboxEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local stand-in for a message broker (app.outbox.broker.enabled=true): appends every outbox
+ * event as one JSON line to app.outbox.broker.dir/&lt;aggregateType&gt;.jsonl, one "topic" per
+ * aggregate type. Lines are written in delivery order, so each topic keeps the per-aggregate
+ * order of the outbox; a consumer tails the file and skips sequences it has already applied.
+ * Each line is flushed before the event counts as delivered. Writes are serialized with a
+ * ReentrantLock rather than synchronized, so blocking file I/O does not pin a virtual thread.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.broker.enabled", havingValue = "true")
+@Slf4j
+public class LocalBrokerOutboxListener implements OutboxListener {
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Map<String, BufferedWriter> topics = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public LocalBrokerOutboxListener(ObjectMapper objectMapper,
+                                     @Value("${app.outbox.broker.dir:outbox-broker}") String directory) {
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory);
+        log.info("Outbox events are appended to {}", this.directory.toAbsolutePath());
+    }
+
+    @Override
+    public void onEvent(OutboxEventDTO event) throws IOException {
+        String line = objectMapper.writeValueAsString(event);
+        lock.lock();
+        try {
+            BufferedWriter writer = topic(event.getAggregateType());
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            topics.values().forEach(writer -> {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close outbox topic file: {}", e.getMessage());
+                }
+            });
+            topics.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BufferedWriter topic(String aggregateType) {
+        return topics.computeIfAbsent(aggregateType, type -> {
+            try {
+                Files.createDirectories(directory);
+                return Files.newBufferedWriter(directory.resolve(type + ".jsonl"), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
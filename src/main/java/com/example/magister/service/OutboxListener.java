@@ -0,0 +1,16 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.OutboxEventDTO;
+
+/**
+ * Consumer of the outbox change feed; every bean implementing it receives every event.
+ *
+ * Delivery is at least once and in order per aggregate: an event is redelivered (to all
+ * listeners) until every listener has accepted it, and later events of the same aggregate
+ * wait for it. Listeners should therefore be idempotent, e.g. by remembering the last
+ * sequence applied per aggregate. Throwing rejects the event.
+ */
+public interface OutboxListener {
+
+    void onEvent(OutboxEventDTO event) throws Exception;
+}
@@ -0,0 +1,222 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.OutboxEventDTO;
+import com.example.magister.dto.OutboxStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read side of the transactional outbox: drains outbox_events to every OutboxListener bean.
+ *
+ * Each poll takes a transaction-scoped advisory lock, so with several instances only one
+ * drains at a time, reads up to app.outbox.batch-size unpublished rows in id order and hands
+ * them to the listeners one by one. Delivered rows are marked published in the same
+ * transaction; a crash before commit means they are delivered again (at least once). When a
+ * listener rejects an event, the rest of that aggregate's events in the batch are held back
+ * so per-aggregate order is kept, and the event is retried on the next poll. After
+ * app.outbox.max-attempts it is marked failed and stops blocking its aggregate; failed events
+ * can be requeued from the admin API.
+ */
+@Service
+@Slf4j
+public class OutboxPublisher {
+
+    // Arbitrary constant shared by every instance: pg_try_advisory_xact_lock key of the drainer
+    private static final long DRAIN_LOCK_KEY = 0x6d61676f75746278L;
+
+    private static final String SELECT_SQL = "SELECT id, tenant_id, aggregate_type, aggregate_id, sequence, " +
+            "event_type, payload, created_at, attempts FROM outbox_events " +
+            "WHERE published_at IS NULL AND failed_at IS NULL ORDER BY id LIMIT ?";
+    private static final String PUBLISHED_SQL = "UPDATE outbox_events SET published_at = ? WHERE id = ?";
+    private static final String FAILED_SQL = "UPDATE outbox_events SET attempts = attempts + 1, last_error = ?, " +
+            "failed_at = CASE WHEN attempts + 1 >= ? THEN ? END WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<OutboxListener> listeners;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder deliveryFailures = new LongAdder();
+    private final Map<String, LongAdder> failuresByListener = new ConcurrentHashMap<>();
+    private volatile long lastBatchMaxLagMs;
+
+    @Value("${app.outbox.publisher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-batches-per-poll:50}")
+    private int maxBatchesPerPoll;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retention-hours:72}")
+    private int retentionHours;
+
+    public OutboxPublisher(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ObjectProvider<OutboxListener> listeners) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.listeners = listeners.orderedStream().toList();
+        log.info("Outbox listeners: {}", this.listeners.stream().map(OutboxPublisher::nameOf).toList());
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (int i = 0; i < maxBatchesPerPoll; i++) {
+                Integer read = transactionTemplate.execute(status -> drainBatch());
+                if (read == null || read < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Outbox poll failed", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.purge-cron:0 45 3 * * *}")
+    public void purgePublished() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM outbox_events WHERE id IN (SELECT id FROM outbox_events " +
+                    "WHERE published_at < ? LIMIT 10000)", cutoff);
+            total += deleted;
+        } while (deleted > 0);
+        if (total > 0) {
+            log.info("Purged {} published outbox events older than {} hours", total, retentionHours);
+        }
+    }
+
+    public int requeueFailed() {
+        int requeued = jdbcTemplate.update("UPDATE outbox_events SET failed_at = NULL, attempts = 0 " +
+                "WHERE failed_at IS NOT NULL AND published_at IS NULL");
+        log.info("Requeued {} failed outbox events", requeued);
+        return requeued;
+    }
+
+    public OutboxStatsDTO getStats() {
+        OutboxStatsDTO stats = new OutboxStatsDTO();
+        stats.setPublisherEnabled(enabled);
+        jdbcTemplate.query("SELECT COUNT(*) FILTER (WHERE failed_at IS NULL), COUNT(*) FILTER (WHERE failed_at IS NOT NULL), " +
+                "MIN(created_at) FILTER (WHERE failed_at IS NULL) FROM outbox_events WHERE published_at IS NULL", rs -> {
+            stats.setPending(rs.getLong(1));
+            stats.setFailed(rs.getLong(2));
+            Timestamp oldest = rs.getTimestamp(3);
+            stats.setOldestPendingAgeMs(oldest == null ? 0
+                    : Math.max(0, Duration.between(oldest.toLocalDateTime(), LocalDateTime.now()).toMillis()));
+        });
+        stats.setLastBatchMaxLagMs(lastBatchMaxLagMs);
+        stats.setPublished(published.sum());
+        stats.setDeliveryFailures(deliveryFailures.sum());
+        Map<String, Long> byListener = new LinkedHashMap<>();
+        failuresByListener.forEach((name, count) -> byListener.put(name, count.sum()));
+        stats.setFailuresByListener(byListener);
+        return stats;
+    }
+
+    private int drainBatch() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, DRAIN_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            return 0;
+        }
+        List<Row> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Row(
+                new OutboxEventDTO(
+                        rs.getLong("id"),
+                        rs.getLong("tenant_id"),
+                        rs.getString("aggregate_type"),
+                        rs.getLong("aggregate_id"),
+                        rs.getLong("sequence"),
+                        rs.getString("event_type"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        rs.getString("payload")),
+                rs.getInt("attempts")), batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> blocked = new HashSet<>();
+        List<Object[]> delivered = new ArrayList<>(rows.size());
+        LocalDateTime now = LocalDateTime.now();
+        long maxLagMs = 0;
+        for (Row row : rows) {
+            OutboxEventDTO event = row.event();
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            if (blocked.contains(aggregate)) {
+                continue;
+            }
+            String error = deliver(event);
+            if (error == null) {
+                delivered.add(new Object[]{Timestamp.valueOf(now), event.getId()});
+                maxLagMs = Math.max(maxLagMs, Duration.between(event.getOccurredAt(), now).toMillis());
+                continue;
+            }
+            blocked.add(aggregate);
+            deliveryFailures.increment();
+            jdbcTemplate.update(FAILED_SQL, truncate(error), maxAttempts, Timestamp.valueOf(now), event.getId());
+            if (row.attempts() + 1 >= maxAttempts) {
+                log.error("Outbox event {} ({} {}) failed {} times and was set aside: {}",
+                        event.getId(), event.getType(), aggregate, maxAttempts, error);
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            jdbcTemplate.batchUpdate(PUBLISHED_SQL, delivered);
+            published.add(delivered.size());
+            lastBatchMaxLagMs = maxLagMs;
+        }
+        return rows.size();
+    }
+
+    // Returns null when every listener accepted the event, otherwise the first failure
+    private String deliver(OutboxEventDTO event) {
+        for (OutboxListener listener : listeners) {
+            try {
+                listener.onEvent(event);
+            } catch (Exception e) {
+                String name = nameOf(listener);
+                failuresByListener.computeIfAbsent(name, key -> new LongAdder()).increment();
+                log.warn("Outbox listener {} rejected event {} ({}): {}", name, event.getId(), event.getType(), e.toString());
+                return name + ": " + e;
+            }
+        }
+        return null;
+    }
+
+    private static String nameOf(OutboxListener listener) {
+        return listener.getClass().getSimpleName();
+    }
+
+    private static String truncate(String error) {
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    private record Row(OutboxEventDTO event, int attempts) {
+    }
+}
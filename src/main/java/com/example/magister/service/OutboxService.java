@@ -0,0 +1,128 @@
+package com.example.magister.service;
+
+import com.example.magister.security.TenantContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Write side of the transactional outbox.
+ *
+ * publish() snapshots the payload as JSON and collects it with the surrounding transaction;
+ * just before that transaction commits, all of its events are written to outbox_events in one
+ * JDBC batch on the same connection, so an event exists exactly when its change does. Each
+ * event first takes the next sequence number of its aggregate from outbox_aggregates; the
+ * upsert locks that row until commit, so events of one aggregate get increasing ids in commit
+ * order. Aggregates are locked in sorted order to keep two transactions from deadlocking.
+ * OutboxPublisher delivers the rows.
+ */
+@Service
+@Slf4j
+public class OutboxService {
+
+    public static final String GROUP = "Group";
+    public static final String PAYMENT = "Payment";
+    public static final String ATTENDANCE = "Attendance";
+    public static final String COIN = "Coin";
+    public static final String REDEMPTION = "Redemption";
+
+    public static final String GROUP_CREATED = "group.created";
+    public static final String GROUP_UPDATED = "group.updated";
+    public static final String STUDENTS_ENROLLED = "group.students.enrolled";
+    public static final String STUDENTS_REMOVED = "group.students.removed";
+    public static final String STUDENTS_TRANSFERRED = "group.students.transferred";
+
+    private static final String SEQUENCE_SQL = "INSERT INTO outbox_aggregates (aggregate_type, aggregate_id, last_sequence) " +
+            "VALUES (?, ?, 1) ON CONFLICT (aggregate_type, aggregate_id) " +
+            "DO UPDATE SET last_sequence = outbox_aggregates.last_sequence + 1 RETURNING last_sequence";
+    private static final String INSERT_SQL = "INSERT INTO outbox_events " +
+            "(tenant_id, aggregate_type, aggregate_id, sequence, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void publish(String aggregateType, Long aggregateId, String eventType, Object payload) {
+        PendingEvent event = new PendingEvent(TenantContext.currentOrDefault(), aggregateType, aggregateId,
+                eventType, toJson(payload), LocalDateTime.now());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(List.of(event));
+            return;
+        }
+        pendingEvents().add(event);
+    }
+
+    // One collector per transaction; a suspended outer transaction keeps its own
+    private List<PendingEvent> pendingEvents() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Collector collector) {
+                return collector.events;
+            }
+        }
+        Collector collector = new Collector();
+        TransactionSynchronizationManager.registerSynchronization(collector);
+        return collector.events;
+    }
+
+    private void write(List<PendingEvent> events) {
+        List<PendingEvent> sorted = new ArrayList<>(events);
+        sorted.sort(Comparator.comparing(PendingEvent::aggregateType).thenComparing(PendingEvent::aggregateId));
+
+        List<Object[]> args = new ArrayList<>(sorted.size());
+        for (PendingEvent event : sorted) {
+            Long sequence = jdbcTemplate.queryForObject(SEQUENCE_SQL, Long.class,
+                    event.aggregateType(), event.aggregateId());
+            args.add(new Object[]{
+                    event.tenantId(),
+                    event.aggregateType(),
+                    event.aggregateId(),
+                    sequence,
+                    event.eventType(),
+                    event.payload(),
+                    Timestamp.valueOf(event.createdAt())
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    private String toJson(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    private record PendingEvent(Long tenantId, String aggregateType, Long aggregateId, String eventType,
+                                String payload, LocalDateTime createdAt) {
+    }
+
+    private final class Collector implements TransactionSynchronization {
+        final List<PendingEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!events.isEmpty()) {
+                write(events);
+                log.debug("Wrote {} outbox events", events.size());
+            }
+        }
+    }
+}
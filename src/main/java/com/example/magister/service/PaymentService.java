@@ -4,16 +4,19 @@ import com.example.magister.dto.CreatePaymentRequest;
 import com.example.magister.dto.PaymentDTO;
 import com.example.magister.dto.PaymentStatsDTO;
 import com.example.magister.dto.UpdatePaymentRequest;
+import com.example.magister.entity.AuditAction;
 import com.example.magister.entity.EnrollmentStatus;
 import com.example.magister.entity.Group;
 import com.example.magister.entity.Payment;
 import com.example.magister.entity.User;
 import com.example.magister.exception.BusinessException;
+import com.example.magister.exception.ConflictException;
 import com.example.magister.exception.ResourceNotFoundException;
 import com.example.magister.exception.UnauthorizedException;
 import com.example.magister.repository.GroupRepository;
 import com.example.magister.repository.GroupStudentRepository;
 import com.example.magister.repository.PaymentRepository;
+import com.example.magister.repository.PaymentRollupRepository;
 import com.example.magister.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +37,12 @@ public class PaymentService {
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
     private final GroupStudentRepository groupStudentRepository;
+    private final VersionStampService versionStampService;
+    private final StudentEventService studentEventService;
+    private final OutboxService outboxService;
+    private final AuditService auditService;
+    private final PaymentRollupRepository paymentRollupRepository;
+    private final BillingService billingService;
 
     @Transactional
     public PaymentDTO createPayment(CreatePaymentRequest request, Long teacherId) {
@@ -73,9 +82,12 @@ public class PaymentService {
                 .build();
 
         payment = paymentRepository.save(payment);
+        applyAggregates(payment, 1);
+        versionStampService.studentChanged(student.getId());
+        audit(AuditAction.PAYMENT_CREATED, payment);
         log.info("Payment created successfully");
 
-        return mapToPaymentDTO(payment);
+        return publish(StudentEventService.PAYMENT_CREATED, payment);
     }
 
     @Transactional(readOnly = true)
@@ -122,6 +134,8 @@ public class PaymentService {
         if (!payment.getTeacher().getId().equals(teacherId)) {
             throw new UnauthorizedException("You can only update your own payments");
         }
+        checkVersion(payment, request);
+        applyAggregates(payment, -1);
 
         if (request.getAmount() != null) {
             payment.setAmount(request.getAmount());
@@ -136,9 +150,13 @@ public class PaymentService {
             payment.setNotes(request.getNotes());
         }
 
-        payment = paymentRepository.save(payment);
+        // Flushed so the incremented version is in the response the client sends back next time
+        payment = paymentRepository.saveAndFlush(payment);
+        applyAggregates(payment, 1);
+        versionStampService.studentChanged(payment.getStudent().getId());
+        audit(AuditAction.PAYMENT_UPDATED, payment);
         log.info("Payment {} updated by teacher {}", paymentId, teacherId);
-        return mapToPaymentDTO(payment);
+        return publish(StudentEventService.PAYMENT_UPDATED, payment);
     }
 
     @Transactional
@@ -151,6 +169,10 @@ public class PaymentService {
         }
 
         paymentRepository.delete(payment);
+        applyAggregates(payment, -1);
+        versionStampService.studentChanged(payment.getStudent().getId());
+        publish(StudentEventService.PAYMENT_DELETED, payment);
+        audit(AuditAction.PAYMENT_DELETED, payment);
         log.info("Payment {} deleted by teacher {}", paymentId, teacherId);
     }
 
@@ -184,14 +206,19 @@ public class PaymentService {
                 .build();
 
         payment = paymentRepository.save(payment);
+        applyAggregates(payment, 1);
+        versionStampService.studentChanged(student.getId());
+        audit(AuditAction.PAYMENT_CREATED, payment);
         log.info("Payment created by admin");
-        return mapToPaymentDTO(payment);
+        return publish(StudentEventService.PAYMENT_CREATED, payment);
     }
 
     @Transactional
     public PaymentDTO updatePaymentByAdmin(Long paymentId, UpdatePaymentRequest request) {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
+        checkVersion(payment, request);
+        applyAggregates(payment, -1);
 
         if (request.getAmount() != null) {
             payment.setAmount(request.getAmount());
@@ -206,9 +233,12 @@ public class PaymentService {
             payment.setNotes(request.getNotes());
         }
 
-        payment = paymentRepository.save(payment);
+        payment = paymentRepository.saveAndFlush(payment);
+        applyAggregates(payment, 1);
+        versionStampService.studentChanged(payment.getStudent().getId());
+        audit(AuditAction.PAYMENT_UPDATED, payment);
         log.info("Payment {} updated by admin", paymentId);
-        return mapToPaymentDTO(payment);
+        return publish(StudentEventService.PAYMENT_UPDATED, payment);
     }
 
     @Transactional
@@ -217,24 +247,62 @@ public class PaymentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Payment", "id", paymentId));
 
         paymentRepository.delete(payment);
+        applyAggregates(payment, -1);
+        versionStampService.studentChanged(payment.getStudent().getId());
+        publish(StudentEventService.PAYMENT_DELETED, payment);
+        audit(AuditAction.PAYMENT_DELETED, payment);
         log.info("Payment {} deleted by admin", paymentId);
     }
 
     @Transactional(readOnly = true)
     public PaymentStatsDTO getPaymentStats(Long teacherId) {
-        List<Payment> payments = paymentRepository.findByTeacherId(teacherId);
-
-        BigDecimal totalAmount = payments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Reads the pre-aggregated rollups instead of loading every payment
+        Object[] totals = paymentRollupRepository.getTotalsByTeacher(teacherId).get(0);
 
         PaymentStatsDTO stats = new PaymentStatsDTO();
-        stats.setTotalPayments(payments.size());
-        stats.setTotalAmount(totalAmount);
+        stats.setTotalPayments(((Number) totals[0]).intValue());
+        stats.setTotalAmount(totals[1] instanceof BigDecimal amount ? amount : new BigDecimal(totals[1].toString()));
 
         return stats;
     }
 
+    // Keeps payment_rollups and the enrollment balance in step with this payment;
+    // sign is +1 for add, -1 for remove
+    private void applyAggregates(Payment payment, int sign) {
+        BigDecimal amount = sign < 0 ? payment.getAmount().negate() : payment.getAmount();
+        paymentRollupRepository.applyDelta(
+                payment.getTenantId(),
+                payment.getPaymentDate().toLocalDate(),
+                payment.getTeacher().getId(),
+                payment.getGroup().getId(),
+                payment.getMethod().name(),
+                sign,
+                amount);
+        billingService.applyPayment(payment.getGroup().getId(), payment.getStudent().getId(), amount);
+    }
+
+    // Concurrent writers that both pass this check are still caught by @Version at flush time
+    private void checkVersion(Payment payment, UpdatePaymentRequest request) {
+        if (request.getVersion() != null && !request.getVersion().equals(payment.getVersion())) {
+            throw new ConflictException("Payment " + payment.getId()
+                    + " was modified by someone else; reload it and try again");
+        }
+    }
+
+    private void audit(AuditAction action, Payment payment) {
+        auditService.record(action, "Payment", payment.getId(), String.format(
+                "student=%d group=%d amount=%s method=%s paymentDate=%s",
+                payment.getStudent().getId(), payment.getGroup().getId(), payment.getAmount(),
+                payment.getMethod(), payment.getPaymentDate()));
+    }
+
+    private PaymentDTO publish(String eventType, Payment payment) {
+        PaymentDTO dto = mapToPaymentDTO(payment);
+        studentEventService.publish(dto.getStudentId(), eventType, dto.getGroupId(), dto);
+        outboxService.publish(OutboxService.PAYMENT, dto.getId(), eventType, dto);
+        return dto;
+    }
+
     private PaymentDTO mapToPaymentDTO(Payment payment) {
         PaymentDTO dto = new PaymentDTO();
         dto.setId(payment.getId());
@@ -249,6 +317,7 @@ public class PaymentService {
         dto.setMethod(payment.getMethod());
         dto.setNotes(payment.getNotes());
         dto.setCreatedAt(payment.getCreatedAt());
+        dto.setVersion(payment.getVersion());
         return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.RevenueBucketDTO;
+import com.example.magister.dto.RevenueGrouping;
+import com.example.magister.dto.RevenueReportDTO;
+import com.example.magister.entity.Group;
+import com.example.magister.entity.PaymentRollup;
+import com.example.magister.entity.User;
+import com.example.magister.exception.BusinessException;
+import com.example.magister.repository.GroupRepository;
+import com.example.magister.repository.PaymentRollupRepository;
+import com.example.magister.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Revenue reports answered from payment_rollups: a year-long report reads at most one row
+ * per (day, teacher, group, method) that actually had payments.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueService {
+
+    private final PaymentRollupRepository paymentRollupRepository;
+    private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public RevenueReportDTO getRevenue(LocalDate from, LocalDate to, RevenueGrouping groupBy,
+                                       Long teacherId, Long groupId) {
+        if (from.isAfter(to)) {
+            throw new BusinessException("'from' must not be after 'to'");
+        }
+
+        List<PaymentRollup> rollups = paymentRollupRepository.findInRange(from, to, teacherId, groupId);
+
+        Function<PaymentRollup, String> keyOf = switch (groupBy) {
+            case DAY -> r -> r.getDay().toString();
+            case MONTH -> r -> YearMonth.from(r.getDay()).toString();
+            case TEACHER -> r -> r.getTeacherId().toString();
+            case GROUP -> r -> r.getGroupId().toString();
+            case METHOD -> r -> r.getMethod().name();
+        };
+
+        Map<String, RevenueBucketDTO> buckets = new TreeMap<>();
+        long totalPayments = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (PaymentRollup rollup : rollups) {
+            RevenueBucketDTO bucket = buckets.computeIfAbsent(keyOf.apply(rollup), key -> {
+                RevenueBucketDTO dto = new RevenueBucketDTO();
+                dto.setKey(key);
+                dto.setPaymentCount(0L);
+                dto.setTotalAmount(BigDecimal.ZERO);
+                return dto;
+            });
+            bucket.setPaymentCount(bucket.getPaymentCount() + rollup.getPaymentCount());
+            bucket.setTotalAmount(bucket.getTotalAmount().add(rollup.getTotalAmount()));
+            totalPayments += rollup.getPaymentCount();
+            totalAmount = totalAmount.add(rollup.getTotalAmount());
+        }
+
+        List<RevenueBucketDTO> result = buckets.values().stream()
+                .filter(bucket -> bucket.getPaymentCount() != 0)
+                .collect(Collectors.toCollection(ArrayList::new));
+        // Time buckets stay chronological; the others are ranked by revenue
+        if (groupBy != RevenueGrouping.DAY && groupBy != RevenueGrouping.MONTH) {
+            result.sort(Comparator.comparing(RevenueBucketDTO::getTotalAmount).reversed());
+        }
+        applyLabels(result, groupBy);
+
+        RevenueReportDTO report = new RevenueReportDTO();
+        report.setFrom(from);
+        report.setTo(to);
+        report.setGroupBy(groupBy);
+        report.setTotalPayments(totalPayments);
+        report.setTotalAmount(totalAmount);
+        report.setBuckets(result);
+        return report;
+    }
+
+    @Transactional
+    public void rebuildRollups() {
+        log.info("Rebuilding payment rollups from payments");
+        paymentRollupRepository.lockForRebuild();
+        paymentRollupRepository.deleteAllRollups();
+        paymentRollupRepository.rebuildFromPayments();
+    }
+
+    private void applyLabels(List<RevenueBucketDTO> buckets, RevenueGrouping groupBy) {
+        if (groupBy == RevenueGrouping.TEACHER) {
+            Map<String, String> names = userRepository.findAllById(idsOf(buckets)).stream()
+                    .collect(Collectors.toMap(user -> user.getId().toString(), User::getFullName));
+            buckets.forEach(bucket -> bucket.setLabel(names.get(bucket.getKey())));
+        } else if (groupBy == RevenueGrouping.GROUP) {
+            Map<String, String> names = groupRepository.findAllById(idsOf(buckets)).stream()
+                    .collect(Collectors.toMap(group -> group.getId().toString(), Group::getName));
+            buckets.forEach(bucket -> bucket.setLabel(names.get(bucket.getKey())));
+        } else {
+            buckets.forEach(bucket -> bucket.setLabel(bucket.getKey()));
+        }
+    }
+
+    private List<Long> idsOf(List<RevenueBucketDTO> buckets) {
+        return buckets.stream().map(bucket -> Long.valueOf(bucket.getKey())).toList();
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.CreateRewardRequest;
+import com.example.magister.dto.RedeemRewardRequest;
+import com.example.magister.dto.RedemptionDTO;
+import com.example.magister.dto.RewardDTO;
+import com.example.magister.dto.UpdateRewardRequest;
+import com.example.magister.entity.AuditAction;
+import com.example.magister.entity.CoinRedemption;
+import com.example.magister.entity.Group;
+import com.example.magister.entity.Reward;
+import com.example.magister.entity.User;
+import com.example.magister.exception.BusinessException;
+import com.example.magister.exception.ConflictException;
+import com.example.magister.exception.ResourceNotFoundException;
+import com.example.magister.repository.CoinBalanceRepository;
+import com.example.magister.repository.CoinRedemptionRepository;
+import com.example.magister.repository.GroupRepository;
+import com.example.magister.repository.RewardRepository;
+import com.example.magister.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Reward catalogue and coin redemptions.
+ *
+ * A redemption never reads a balance or a stock count and writes it back: the student's
+ * (student, group) balance and the reward's stock are each taken with one conditional UPDATE
+ * that changes no row when there is not enough left, so a burst of redemptions at the end of
+ * class cannot overspend or oversell. Both rows are always locked in the same order (the
+ * student's own balance, then the shared reward), so concurrent redemptions queue instead of
+ * deadlocking, and the shared reward row is locked last to keep it held for as short as possible.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RewardService {
+
+    private final RewardRepository rewardRepository;
+    private final CoinRedemptionRepository coinRedemptionRepository;
+    private final CoinBalanceRepository coinBalanceRepository;
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final VersionStampService versionStampService;
+    private final StudentEventService studentEventService;
+    private final OutboxService outboxService;
+    private final AuditService auditService;
+
+    @Transactional
+    public RewardDTO createReward(CreateRewardRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new BusinessException("Reward name is required");
+        }
+        checkCost(request.getCost());
+        if (request.getStock() != null && request.getStock() < 0) {
+            throw new BusinessException("Reward stock cannot be negative");
+        }
+
+        Reward reward = Reward.builder()
+                .name(request.getName())
+                .description(request.getDescription())
+                .cost(request.getCost())
+                .stock(request.getStock())
+                .active(true)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        reward = rewardRepository.save(reward);
+        auditService.record(AuditAction.REWARD_CREATED, "Reward", reward.getId(), String.format(
+                "name=%s cost=%d stock=%s", reward.getName(), reward.getCost(), reward.getStock()));
+        log.info("Reward {} created: cost={} stock={}", reward.getId(), reward.getCost(), reward.getStock());
+        return mapToRewardDTO(reward);
+    }
+
+    @Transactional
+    public RewardDTO updateReward(Long rewardId, UpdateRewardRequest request) {
+        Reward reward = findReward(rewardId);
+
+        if (request.getName() != null) {
+            reward.setName(request.getName());
+        }
+        if (request.getDescription() != null) {
+            reward.setDescription(request.getDescription());
+        }
+        if (request.getCost() != null) {
+            checkCost(request.getCost());
+            reward.setCost(request.getCost());
+        }
+        if (request.getActive() != null) {
+            reward.setActive(request.getActive());
+        }
+
+        reward = rewardRepository.save(reward);
+        auditService.record(AuditAction.REWARD_UPDATED, "Reward", reward.getId(), String.format(
+                "name=%s cost=%d active=%s", reward.getName(), reward.getCost(), reward.getActive()));
+        return mapToRewardDTO(reward);
+    }
+
+    @Transactional
+    public RewardDTO restockReward(Long rewardId, int quantity) {
+        if (quantity <= 0) {
+            throw new BusinessException("Restock quantity must be positive");
+        }
+        Reward reward = findReward(rewardId);
+        if (rewardRepository.addStock(reward.getId(), quantity) == 0) {
+            throw new BusinessException("Reward has unlimited stock");
+        }
+        reward = findReward(rewardId);
+        auditService.record(AuditAction.REWARD_RESTOCKED, "Reward", rewardId, String.format(
+                "added=%d stock=%d", quantity, reward.getStock()));
+        log.info("Reward {} restocked with {} units", rewardId, quantity);
+        return mapToRewardDTO(reward);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RewardDTO> getAvailableRewards() {
+        return rewardRepository.findByActiveTrueOrderByCostAsc().stream()
+                .map(this::mapToRewardDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<RewardDTO> getAllRewards() {
+        return rewardRepository.findAllByOrderByCreatedAtDesc().stream()
+                .map(this::mapToRewardDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public RedemptionDTO redeemReward(RedeemRewardRequest request, Long studentId) {
+        if (request.getRewardId() == null || request.getGroupId() == null) {
+            throw new BusinessException("rewardId and groupId are required");
+        }
+        Reward reward = findReward(request.getRewardId());
+        if (!Boolean.TRUE.equals(reward.getActive())) {
+            throw new BusinessException("Reward is no longer available");
+        }
+        User student = userRepository.findById(studentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Student", "id", studentId));
+        Group group = groupRepository.findById(request.getGroupId())
+                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", request.getGroupId()));
+
+        int cost = reward.getCost();
+        if (coinBalanceRepository.spend(studentId, group.getId(), cost) == 0) {
+            throw new BusinessException("Not enough coins in this group for " + reward.getName());
+        }
+
+        CoinRedemption redemption = coinRedemptionRepository.save(CoinRedemption.builder()
+                .student(student)
+                .group(group)
+                .reward(reward)
+                .cost(cost)
+                .redeemedAt(LocalDateTime.now())
+                .build());
+
+        // Last, so the shared reward row stays locked only until the commit right after; when it
+        // is sold out (or was just withdrawn) the exception rolls the balance back with the rest
+        if (rewardRepository.takeOne(reward.getId()) == 0) {
+            throw new ConflictException(reward.getName() + " is sold out");
+        }
+
+        versionStampService.studentChanged(studentId);
+        auditService.record(AuditAction.COINS_REDEEMED, "CoinRedemption", redemption.getId(), String.format(
+                "student=%d group=%d reward=%d cost=%d", studentId, group.getId(), reward.getId(), cost));
+        log.info("Student {} redeemed reward {} for {} coins from group {}",
+                studentId, reward.getId(), cost, group.getId());
+
+        RedemptionDTO dto = mapToRedemptionDTO(redemption);
+        studentEventService.publish(studentId, StudentEventService.COINS_REDEEMED, group.getId(), dto);
+        outboxService.publish(OutboxService.REDEMPTION, redemption.getId(), StudentEventService.COINS_REDEEMED, dto);
+        return dto;
+    }
+
+    @Transactional(readOnly = true)
+    public List<RedemptionDTO> getRedemptionsByStudent(Long studentId) {
+        return coinRedemptionRepository.findByStudentId(studentId).stream()
+                .map(this::mapToRedemptionDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<RedemptionDTO> getRedemptionsByReward(Long rewardId) {
+        findReward(rewardId);
+        return coinRedemptionRepository.findByRewardId(rewardId).stream()
+                .map(this::mapToRedemptionDTO)
+                .collect(Collectors.toList());
+    }
+
+    private Reward findReward(Long rewardId) {
+        return rewardRepository.findById(rewardId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reward", "id", rewardId));
+    }
+
+    private static void checkCost(Integer cost) {
+        if (cost == null || cost <= 0) {
+            throw new BusinessException("Reward cost must be positive");
+        }
+    }
+
+    private RewardDTO mapToRewardDTO(Reward reward) {
+        RewardDTO dto = new RewardDTO();
+        dto.setId(reward.getId());
+        dto.setName(reward.getName());
+        dto.setDescription(reward.getDescription());
+        dto.setCost(reward.getCost());
+        dto.setStock(reward.getStock());
+        dto.setActive(reward.getActive());
+        dto.setCreatedAt(reward.getCreatedAt());
+        return dto;
+    }
+
+    private RedemptionDTO mapToRedemptionDTO(CoinRedemption redemption) {
+        RedemptionDTO dto = new RedemptionDTO();
+        dto.setId(redemption.getId());
+        dto.setStudentId(redemption.getStudent().getId());
+        dto.setStudentName(redemption.getStudent().getFullName());
+        dto.setGroupId(redemption.getGroup().getId());
+        dto.setGroupName(redemption.getGroup().getName());
+        dto.setRewardId(redemption.getReward().getId());
+        dto.setRewardName(redemption.getReward().getName());
+        dto.setCost(redemption.getCost());
+        dto.setRedeemedAt(redemption.getRedeemedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.SearchHitDTO;
+import com.example.magister.dto.SearchPageDTO;
+import com.example.magister.entity.UserRole;
+import com.example.magister.exception.BusinessException;
+import com.example.magister.repository.UserRepository;
+import com.example.magister.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Typeahead search over users and groups of the caller's branch. Teachers only find students
+ * enrolled in their own groups, and their own groups.
+ */
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    public static final String TYPE_USER = "USER";
+    public static final String TYPE_GROUP = "GROUP";
+
+    private static final int MIN_QUERY_LENGTH = 2;
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final int FUZZY_MIN_LENGTH = 3;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final UserRepository userRepository;
+
+    // role only narrows user hits; groups are matched by type alone
+    @Transactional(readOnly = true)
+    public SearchPageDTO search(String query, String type, UserRole role, Long teacherId, int page, int size) {
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (q.length() < MIN_QUERY_LENGTH || q.length() > MAX_QUERY_LENGTH) {
+            throw new BusinessException("Search query must be between " + MIN_QUERY_LENGTH
+                    + " and " + MAX_QUERY_LENGTH + " characters");
+        }
+        boolean includeUsers = type == null || TYPE_USER.equalsIgnoreCase(type);
+        boolean includeGroups = type == null || TYPE_GROUP.equalsIgnoreCase(type);
+        if (!includeUsers && !TYPE_GROUP.equalsIgnoreCase(type)) {
+            throw new BusinessException("type must be USER or GROUP");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+
+        String escaped = escapeLike(q);
+        String digits = q.replaceAll("[^0-9]", "");
+        List<Object[]> rows = userRepository.searchDirectory(
+                q,
+                escaped + "%",
+                "% " + escaped + "%",
+                "%" + escaped + "%",
+                digits.length() >= FUZZY_MIN_LENGTH ? "%" + digits + "%" : null,
+                q.length() >= FUZZY_MIN_LENGTH,
+                includeUsers,
+                includeGroups,
+                TenantContext.getTenantId(),
+                role != null ? role.name() : null,
+                teacherId,
+                // One extra row tells whether there is a next page without counting all matches
+                pageSize + 1,
+                pageNumber * pageSize);
+
+        List<SearchHitDTO> items = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (int i = 0; i < rows.size() && i < pageSize; i++) {
+            items.add(mapToSearchHitDTO(rows.get(i)));
+        }
+
+        SearchPageDTO result = new SearchPageDTO();
+        result.setQuery(q);
+        result.setItems(items);
+        result.setPage(pageNumber);
+        result.setSize(pageSize);
+        result.setHasMore(rows.size() > pageSize);
+        return result;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private SearchHitDTO mapToSearchHitDTO(Object[] row) {
+        SearchHitDTO dto = new SearchHitDTO();
+        dto.setType((String) row[0]);
+        dto.setId(((Number) row[1]).longValue());
+        dto.setTitle((String) row[2]);
+        dto.setSubtitle((String) row[3]);
+        dto.setPhone((String) row[4]);
+        dto.setRole(row[5] != null ? UserRole.valueOf((String) row[5]) : null);
+        dto.setScore(((Number) row[6]).doubleValue());
+        return dto;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.magister.service;
+
+import com.example.magister.exception.ServiceUnavailableException;
+import com.example.magister.security.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing for read-only service methods.
+ *
+ * Calls are keyed by branch, a name for the read and its arguments. The first caller runs the
+ * loader in its own read-only transaction; identical calls that arrive while it runs wait for
+ * it and receive the same result (or exception) without opening a transaction of their own.
+ * A completed result is then served for app.single-flight.ttl-ms as a microcache; writers
+ * drop it early with invalidate(). Results are shared between callers and must not be
+ * modified.
+ *
+ * Waiters hold no connection only when the caller has none open either: open-in-view is off,
+ * so a request outside a service transaction has no session pinning one. A waiter gives up
+ * with 503 after app.single-flight.wait-timeout-ms rather than hanging on a stuck load.
+ */
+@Service
+@Slf4j
+public class SingleFlightService {
+
+    private final ConcurrentHashMap<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final TransactionTemplate readOnlyTransaction;
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    @Value("${app.single-flight.ttl-ms:1000}")
+    private long defaultTtlMs;
+
+    @Value("${app.single-flight.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.single-flight.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    public SingleFlightService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public <T> T read(String name, Object argument, Supplier<T> loader) {
+        return read(name, List.of(argument), defaultTtlMs, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T read(String name, List<?> arguments, long ttlMs, Supplier<T> loader) {
+        Key key = new Key(TenantContext.getTenantId(), name, arguments);
+        Flight flight = new Flight();
+        Flight existing;
+        while ((existing = flights.putIfAbsent(key, flight)) != null) {
+            if (!existing.isExpired(System.nanoTime())) {
+                shared.increment();
+                return (T) existing.await(waitTimeoutMs);
+            }
+            flights.remove(key, existing);
+        }
+
+        loads.increment();
+        try {
+            T result = readOnlyTransaction.execute(status -> loader.get());
+            flight.expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMs));
+            flight.result.complete(result);
+            if (ttlMs <= 0) {
+                flights.remove(key, flight);
+            }
+            trimIfNeeded();
+            return result;
+        } catch (RuntimeException e) {
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Drops cached results of the given reads once the current transaction commits
+    public void invalidate(String... names) {
+        Set<String> dropped = Set.of(names);
+        TransactionHooks.afterCommit(() -> flights.keySet().removeIf(key -> dropped.contains(key.name())));
+    }
+
+    @Scheduled(fixedDelayString = "${app.single-flight.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        flights.values().removeIf(flight -> flight.isExpired(now));
+        log.debug("Single-flight: {} loads, {} shared results, {} cached", loads.sum(), shared.sum(), flights.size());
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public long getSharedCount() {
+        return shared.sum();
+    }
+
+    private void trimIfNeeded() {
+        if (flights.size() <= maxEntries) {
+            return;
+        }
+        long now = System.nanoTime();
+        flights.values().removeIf(flight -> flight.isExpired(now));
+        Iterator<Flight> iterator = flights.values().iterator();
+        while (flights.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private record Key(Long tenantId, String name, List<?> arguments) {
+    }
+
+    private static final class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        // Written before result completes, so readers that see a completed result see it too
+        volatile long expiresAt;
+
+        boolean isExpired(long now) {
+            return result.isDone() && now - expiresAt >= 0;
+        }
+
+        Object await(long timeoutMs) {
+            try {
+                return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new ServiceUnavailableException("Timed out waiting for a shared read, please retry");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while waiting for a shared read");
+            }
+        }
+    }
+}
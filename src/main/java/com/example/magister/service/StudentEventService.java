@@ -0,0 +1,286 @@
+package com.example.magister.service;
+
+import com.example.magister.dto.StudentEventDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fan-out hub for the per-student Server-Sent Events stream.
+ *
+ * Services publish after commit; the event is appended to a short per-student replay log
+ * (used to resume from Last-Event-ID) and offered to every open subscriber. Each subscriber
+ * has a bounded buffer drained by a small dispatcher pool, so a slow client never blocks the
+ * publishing request thread; when the buffer overflows, its backlog is replaced by a resync
+ * event. Connections are held by async servlet requests and do not occupy Tomcat worker
+ * threads.
+ *
+ * Event ids start at the startup time in microseconds, so ids keep growing across restarts.
+ * A Last-Event-ID that this process cannot resume from (issued before the replay log or the
+ * channel was dropped, or before a restart) gets a resync event, which tells the client to
+ * refetch instead of silently missing events.
+ *
+ * Channels and replay logs live in this process only: a subscriber receives the events
+ * published by the instance it is connected to, and a change committed on another instance
+ * never reaches it. The outbox cannot relay them, since only one instance drains it at a
+ * time, so the stream assumes a single instance (or sticky routing of a student's writes
+ * and stream to one instance); clients that need every change should refetch on resync.
+ */
+@Service
+@Slf4j
+public class StudentEventService {
+
+    public static final String COIN_AWARDED = "coin.awarded";
+    public static final String COINS_REDEEMED = "coins.redeemed";
+    public static final String ATTENDANCE_MARKED = "attendance.marked";
+    public static final String ATTENDANCE_UPDATED = "attendance.updated";
+    public static final String PAYMENT_CREATED = "payment.created";
+    public static final String PAYMENT_UPDATED = "payment.updated";
+    public static final String PAYMENT_DELETED = "payment.deleted";
+    private static final String RESYNC = "resync";
+
+    @Value("${app.events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${app.events.subscriber-buffer:64}")
+    private int subscriberBuffer;
+
+    @Value("${app.events.replay-size:100}")
+    private int replaySize;
+
+    @Value("${app.events.replay-retention-ms:900000}")
+    private long replayRetentionMs;
+
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+            daemonThreads("sse-dispatch-"));
+
+    public void publish(Long studentId, String type, Long groupId, Object payload) {
+        TransactionHooks.afterCommit(() -> deliver(studentId, type, groupId, payload));
+    }
+
+    public SseEmitter subscribe(Long studentId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+
+        // Replay and registration happen under the channel lock so no event is missed or reordered
+        Channel channel = lockChannel(studentId);
+        try {
+            Subscriber subscriber = new Subscriber(channel, emitter);
+            emitter.onCompletion(subscriber::close);
+            emitter.onTimeout(subscriber::close);
+            emitter.onError(error -> subscriber.close());
+
+            if (lastEventId != null) {
+                if (lastEventId < channel.evictedThrough || lastEventId > sequence.get()) {
+                    subscriber.enqueue(resync(studentId, sequence.get()));
+                } else {
+                    for (StudentEventDTO event : channel.history) {
+                        if (event.getId() > lastEventId) {
+                            subscriber.enqueue(event);
+                        }
+                    }
+                }
+            }
+            channel.subscribers.add(subscriber);
+            channel.touch();
+        } finally {
+            channel.lock.unlock();
+        }
+
+        log.debug("Student {} subscribed to event stream (lastEventId={})", studentId, lastEventId);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        channels.forEach((studentId, channel) -> {
+            channel.subscribers.forEach(Subscriber::requestHeartbeat);
+            if (!channel.isIdle(now, replayRetentionMs)) {
+                return;
+            }
+            // Retired under its lock, so a subscribe or deliver that already looked the channel up
+            // sees it dead once it gets the lock and starts over with a new one
+            channel.lock.lock();
+            try {
+                if (channel.isIdle(now, replayRetentionMs)) {
+                    channel.dead = true;
+                    channels.remove(studentId, channel);
+                }
+            } finally {
+                channel.lock.unlock();
+            }
+        });
+    }
+
+    public int getSubscriberCount() {
+        return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        dispatcher.shutdown();
+    }
+
+    private void deliver(Long studentId, String type, Long groupId, Object payload) {
+        Channel channel = lockChannel(studentId);
+        try {
+            StudentEventDTO event = new StudentEventDTO(sequence.incrementAndGet(), type, studentId, groupId,
+                    LocalDateTime.now(), payload);
+            if (channel.history.size() >= replaySize) {
+                channel.evictedThrough = channel.history.removeFirst().getId();
+            }
+            channel.history.addLast(event);
+            channel.touch();
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.enqueue(event);
+            }
+        } finally {
+            channel.lock.unlock();
+        }
+    }
+
+    private static StudentEventDTO resync(Long studentId, long id) {
+        return new StudentEventDTO(id, RESYNC, studentId, null, LocalDateTime.now(), null);
+    }
+
+    // Returns the student's live channel with its lock held; the caller unlocks
+    private Channel lockChannel(Long studentId) {
+        while (true) {
+            Channel channel = channels.computeIfAbsent(studentId, id -> new Channel(sequence.get()));
+            channel.lock.lock();
+            if (!channel.dead) {
+                return channel;
+            }
+            channel.lock.unlock();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Channel {
+        final ReentrantLock lock = new ReentrantLock();
+        final ArrayDeque<StudentEventDTO> history = new ArrayDeque<>();
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        volatile long evictedThrough;
+        // Set under the lock when heartbeat() retires the channel from the map
+        boolean dead;
+        volatile long lastActivity = System.currentTimeMillis();
+
+        // Events up to createdAt may have been in a retired channel (or a previous process),
+        // so resuming from before it needs a resync
+        Channel(long createdAt) {
+            this.evictedThrough = createdAt;
+        }
+
+        void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        boolean isIdle(long now, long retentionMs) {
+            return subscribers.isEmpty() && now - lastActivity > retentionMs;
+        }
+    }
+
+    private final class Subscriber {
+        final Channel channel;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<StudentEventDTO> buffer = new ArrayBlockingQueue<>(subscriberBuffer);
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean heartbeatDue;
+        volatile boolean closed;
+        long dropped;
+
+        Subscriber(Channel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        // Called under the channel lock, so there is one producer per subscriber
+        void enqueue(StudentEventDTO event) {
+            if (!buffer.offer(event)) {
+                // The client cannot catch up from what is left: replace the backlog with a
+                // resync carrying the newest id, whose change the client's refetch already sees
+                dropped += buffer.size() + 1;
+                buffer.clear();
+                buffer.offer(resync(event.getStudentId(), event.getId()));
+            }
+            schedule();
+        }
+
+        void requestHeartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        void schedule() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        void drain() {
+            try {
+                List<StudentEventDTO> batch = new ArrayList<>();
+                buffer.drainTo(batch);
+                for (StudentEventDTO event : batch) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(event.getId()))
+                            .name(event.getType())
+                            .data(event));
+                }
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+                if (!closed && !buffer.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                channel.subscribers.remove(this);
+                channel.touch();
+                if (dropped > 0) {
+                    log.debug("Event subscriber closed after dropping {} events", dropped);
+                }
+            }
+        }
+    }
+}
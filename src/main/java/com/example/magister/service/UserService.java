@@ -8,6 +8,7 @@ import com.example.magister.exception.BusinessException;
 import com.example.magister.exception.ResourceNotFoundException;
 import com.example.magister.exception.UnauthorizedException;
 import com.example.magister.repository.*;
+import com.example.magister.security.TenantContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -29,7 +30,15 @@ public class UserService {
     private final PaymentRepository paymentRepository;
     private final AttendanceRepository attendanceRepository;
     private final CoinRepository coinRepository;
+    private final CoinBalanceRepository coinBalanceRepository;
+    private final CoinRedemptionRepository coinRedemptionRepository;
     private final GroupRepository groupRepository;
+    private final VersionStampService versionStampService;
+    private final AuditService auditService;
+    private final SingleFlightService singleFlightService;
+    private final PaymentRollupRepository paymentRollupRepository;
+    private final AttendanceStatsRepository attendanceStatsRepository;
+    private final AttendanceMonthlySummaryRepository attendanceSummaryRepository;
 
     @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
@@ -88,13 +97,31 @@ public class UserService {
                 .role(request.getRole())
                 .createdAt(LocalDateTime.now())
                 .build();
+        user.setTenantId(resolveTenantForNewUser(request.getTenantId()));
 
         user = userRepository.save(user);
+        auditService.record(AuditAction.USER_CREATED, "User", user.getId(),
+                String.format("email=%s role=%s", user.getEmail(), user.getRole()));
         log.info("User created: {}", user.getEmail());
 
         return mapToUserDTO(user);
     }
 
+    // Branch admins create users in their own branch; the head office also provisions other branches
+    private Long resolveTenantForNewUser(Long requestedTenantId) {
+        long currentTenantId = TenantContext.currentOrDefault();
+        if (requestedTenantId == null || requestedTenantId == currentTenantId) {
+            return currentTenantId;
+        }
+        if (currentTenantId != TenantContext.DEFAULT_TENANT_ID) {
+            throw new UnauthorizedException("Only head-office admins can create users in another branch");
+        }
+        if (requestedTenantId < 1) {
+            throw new BusinessException("Invalid branch id");
+        }
+        return requestedTenantId;
+    }
+
     @Transactional
     public UserDTO updateUser(Long userId, UpdateUserRequest request) {
         return updateUser(userId, request, null);
@@ -138,6 +165,11 @@ public class UserService {
         }
 
         user = userRepository.save(user);
+        versionStampService.studentChanged(userId);
+        versionStampService.catalogChanged();
+        singleFlightService.invalidate(GroupService.GROUP, GroupService.GROUP_STUDENTS, CoinService.LEADERBOARD);
+        auditService.record(AuditAction.USER_UPDATED, "User", userId,
+                String.format("email=%s role=%s", user.getEmail(), user.getRole()));
         log.info("User updated: {} by user {}", userId, currentUserId);
         return mapToUserDTO(user);
     }
@@ -223,15 +255,27 @@ public class UserService {
         Long userId = user.getId();
 
         // Delete records where user is a student
+        paymentRollupRepository.subtractPaymentsOfStudent(userId);
         paymentRepository.deleteByStudentId(userId);
+        attendanceStatsRepository.deleteByStudentId(userId);
+        attendanceSummaryRepository.deleteByStudentId(userId);
+        attendanceSummaryRepository.deleteArchivedLessonsOfUser(userId);
         attendanceRepository.deleteByStudentId(userId);
+        coinRedemptionRepository.deleteByStudentId(userId);
+        coinBalanceRepository.deleteByStudentId(userId);
         coinRepository.deleteByStudentId(userId);
         groupStudentRepository.deleteByStudentId(userId);
 
         // Delete records where user is a teacher
         if (user.getRole() == UserRole.TEACHER) {
+            paymentRollupRepository.subtractPaymentsOfTeacher(userId);
             paymentRepository.deleteByTeacherId(userId);
+            attendanceStatsRepository.deleteByGroupTeacherId(userId);
+            attendanceSummaryRepository.deleteByGroupTeacherId(userId);
             attendanceRepository.deleteByMarkedById(userId);
+            coinBalanceRepository.subtractCoinsOfTeacher(userId);
+            coinRedemptionRepository.deleteByGroupTeacherId(userId);
+            coinBalanceRepository.deleteByGroupTeacherId(userId);
             coinRepository.deleteByTeacherId(userId);
 
             // Delete groups owned by this teacher (cascades to group_students via entity)
@@ -240,6 +284,11 @@ public class UserService {
         }
 
         userRepository.delete(user);
+        versionStampService.studentChanged(userId);
+        versionStampService.catalogChanged();
+        singleFlightService.invalidate(GroupService.GROUP, GroupService.GROUP_STUDENTS, CoinService.LEADERBOARD);
+        auditService.record(AuditAction.USER_DELETED, "User", userId,
+                String.format("email=%s role=%s", user.getEmail(), user.getRole()));
     }
 
     private UserDTO mapToUserDTO(User user) {
@@ -0,0 +1,146 @@
+package com.example.magister.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Per-aggregate version stamps used to build strong ETags from one primary-key lookup
+ * instead of the full query. Controllers compare the resulting ETag with If-None-Match
+ * before doing any other query or DTO mapping.
+ *
+ * Stamps live in the version_stamps table, so every instance sees the same version. A
+ * service marks what it changed; just before its transaction commits, the marked stamps are
+ * set to the next value of version_stamp_seq in the same transaction, so a new stamp becomes
+ * visible exactly when the change does and a reader cannot cache old data under the new tag.
+ * Stamps are written in sorted order to keep two transactions from deadlocking. Versions
+ * come from one sequence and never repeat, so a tag issued before a restart stays valid only
+ * while its data is unchanged.
+ *
+ * The "catalog" stamp covers data that is denormalized into many responses
+ * (group names, teacher names, student counts), so it is bumped on group, enrollment
+ * and user changes.
+ */
+@Service
+public class VersionStampService {
+
+    private static final String STUDENT = "s";
+    private static final String TEACHER = "t";
+    private static final String CATALOG = "c";
+    private static final long CATALOG_ID = 0L;
+
+    private static final String BUMP_SQL = "INSERT INTO version_stamps (scope, owner_id, version) " +
+            "VALUES (?, ?, nextval('version_stamp_seq')) " +
+            "ON CONFLICT (scope, owner_id) DO UPDATE SET version = EXCLUDED.version";
+    private static final String READ_SQL = "SELECT scope, version FROM version_stamps " +
+            "WHERE (scope, owner_id) IN ((?, ?), ('" + CATALOG + "', " + CATALOG_ID + "))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VersionStampService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void studentChanged(Long studentId) {
+        mark(STUDENT, studentId);
+    }
+
+    public void teacherChanged(Long teacherId) {
+        mark(TEACHER, teacherId);
+    }
+
+    public void catalogChanged() {
+        mark(CATALOG, CATALOG_ID);
+    }
+
+    public String studentEtag(String resource, Long studentId) {
+        return etag(resource, STUDENT, studentId);
+    }
+
+    public String teacherEtag(String resource, Long teacherId) {
+        return etag(resource, TEACHER, teacherId);
+    }
+
+    /**
+     * Weak comparison of an If-None-Match header value against the current ETag, as RFC 9110
+     * requires for If-None-Match. Gzip compression turns the tag we send into W/"...", and
+     * clients echo it back in that form.
+     */
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String etag(String resource, String scope, Long ownerId) {
+        long[] versions = new long[2];
+        jdbcTemplate.query(READ_SQL, rs -> {
+            versions[CATALOG.equals(rs.getString(1)) ? 1 : 0] = rs.getLong(2);
+        }, scope, ownerId);
+        return "\"" + resource + "-" + scope + ownerId + "." + versions[0] + "-c" + versions[1] + "\"";
+    }
+
+    private void mark(String scope, Long ownerId) {
+        if (ownerId == null) {
+            return;
+        }
+        Stamp stamp = new Stamp(scope, ownerId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(List.of(stamp));
+            return;
+        }
+        pendingStamps().add(stamp);
+    }
+
+    // One collector per transaction; a suspended outer transaction keeps its own
+    private Set<Stamp> pendingStamps() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Collector collector) {
+                return collector.stamps;
+            }
+        }
+        Collector collector = new Collector();
+        TransactionSynchronizationManager.registerSynchronization(collector);
+        return collector.stamps;
+    }
+
+    private void write(Iterable<Stamp> stamps) {
+        List<Object[]> args = new ArrayList<>();
+        for (Stamp stamp : stamps) {
+            args.add(new Object[]{stamp.scope(), stamp.ownerId()});
+        }
+        jdbcTemplate.batchUpdate(BUMP_SQL, args);
+    }
+
+    private record Stamp(String scope, Long ownerId) {
+        static final Comparator<Stamp> ORDER = Comparator.comparing(Stamp::scope).thenComparing(Stamp::ownerId);
+    }
+
+    private final class Collector implements TransactionSynchronization {
+        final Set<Stamp> stamps = new TreeSet<>(Stamp.ORDER);
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!stamps.isEmpty()) {
+                write(stamps);
+            }
+        }
+    }
+}
@@ -4,6 +4,121 @@
 -- Drop confirmed_by_admin column (no admin confirmation needed)
 ALTER TABLE payments DROP COLUMN IF EXISTS confirmed_by_admin;
 
--- Make 'active' column nullable with default (removed from User entity)
+-- Make 'active' column nullable with default (removed from User entity); added first so
+-- this also runs on a fresh database that never had it
+ALTER TABLE users ADD COLUMN IF NOT EXISTS active BOOLEAN DEFAULT true;
 ALTER TABLE users ALTER COLUMN active SET DEFAULT true;
 ALTER TABLE users ALTER COLUMN active DROP NOT NULL;
+
+-- Optimistic locking: rows created before payments.version existed start at version 0
+UPDATE payments SET version = 0 WHERE version IS NULL;
+
+-- Idempotency keys for retried creates (used when app.idempotency.persist=true)
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    store_key    VARCHAR(200) PRIMARY KEY,
+    request_hash CHAR(64),
+    response     TEXT,
+    expires_at   TIMESTAMP    NOT NULL
+);
+-- Request bodies used to be fingerprinted with a 32-bit hash; keys stored then have no
+-- request_hash and return their result without a body check until they expire
+ALTER TABLE idempotency_keys DROP COLUMN IF EXISTS fingerprint;
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS request_hash CHAR(64);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
+
+-- Revenue rollups: one-time backfill when the table is first created on a database
+-- that already has payments (afterwards PaymentService keeps it in step)
+INSERT INTO payment_rollups (tenant_id, payment_day, teacher_id, group_id, method, payment_count, total_amount)
+SELECT MIN(tenant_id), CAST(payment_date AS DATE), teacher_id, group_id, method, COUNT(*), SUM(amount)
+FROM payments
+WHERE NOT EXISTS (SELECT 1 FROM payment_rollups)
+GROUP BY 2, 3, 4, 5;
+
+-- Enrollment balances: one-time backfill of paid amounts for enrollments that existed before
+-- billing was added (afterwards PaymentService keeps them in step; charges come from the
+-- accrual job that runs at startup)
+UPDATE group_students gs SET paid_amount = p.total, balance = gs.charged_amount - p.total
+FROM (SELECT group_id, student_id, SUM(amount) AS total FROM payments GROUP BY group_id, student_id) p
+WHERE p.group_id = gs.group_id AND p.student_id = gs.student_id
+  AND gs.paid_amount = 0 AND gs.billed_months = 0;
+
+-- Coin balances: one-time backfill when the table is first created on a database that
+-- already has coins (afterwards CoinService keeps it in step)
+INSERT INTO coin_balances (tenant_id, student_id, group_id, earned, spent, balance, updated_at)
+SELECT MIN(tenant_id), student_id, group_id, SUM(amount), 0, SUM(amount), LOCALTIMESTAMP
+FROM coins
+WHERE NOT EXISTS (SELECT 1 FROM coin_balances)
+GROUP BY student_id, group_id;
+
+-- Cold storage for attendance older than app.attendance.archive.retain-months; rows are moved
+-- here by AttendanceArchiveService and only their monthly counts stay queryable
+CREATE TABLE IF NOT EXISTS attendance_archive (
+    id           BIGINT       NOT NULL,
+    tenant_id    BIGINT       NOT NULL,
+    student_id   BIGINT       NOT NULL,
+    group_id     BIGINT       NOT NULL,
+    marked_by_id BIGINT       NOT NULL,
+    lesson_date  TIMESTAMP    NOT NULL,
+    status       VARCHAR(255) NOT NULL,
+    notes        VARCHAR(255),
+    created_at   TIMESTAMP    NOT NULL,
+    archived_at  TIMESTAMP    NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_attendance_archive_student ON attendance_archive (student_id, lesson_date);
+
+-- Search (SearchService): trigram indexes for substring matches and text_pattern_ops
+-- indexes for prefix matches on the lower-cased columns the search query uses
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm ON users USING gin (lower(full_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm ON users USING gin (lower(email) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_phone_digits_trgm ON users USING gin (regexp_replace(phone, '[^0-9]', '', 'g') gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_users_full_name_prefix ON users (lower(full_name) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_users_email_prefix ON users (lower(email) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_groups_name_trgm ON groups USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_groups_name_prefix ON groups (lower(name) text_pattern_ops);
+
+-- ETag version stamps (VersionStampService): one row per student ('s'), teacher ('t') and
+-- the shared catalog ('c', owner 0), set from version_stamp_seq in the transaction of the
+-- change so every instance sees the same version
+CREATE SEQUENCE IF NOT EXISTS version_stamp_seq;
+CREATE TABLE IF NOT EXISTS version_stamps (
+    scope    CHAR(1) NOT NULL,
+    owner_id BIGINT  NOT NULL,
+    version  BIGINT  NOT NULL,
+    PRIMARY KEY (scope, owner_id)
+);
+
+-- Transactional outbox (OutboxService): one row per domain change, written in the same
+-- transaction; the publisher marks rows published (or failed after app.outbox.max-attempts)
+-- and purges published rows after app.outbox.retention-hours
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id             BIGSERIAL    PRIMARY KEY,
+    tenant_id      BIGINT       NOT NULL,
+    aggregate_type VARCHAR(32)  NOT NULL,
+    aggregate_id   BIGINT       NOT NULL,
+    sequence       BIGINT       NOT NULL,
+    event_type     VARCHAR(64)  NOT NULL,
+    payload        TEXT,
+    created_at     TIMESTAMP    NOT NULL,
+    published_at   TIMESTAMP,
+    failed_at      TIMESTAMP,
+    attempts       INTEGER      NOT NULL DEFAULT 0,
+    last_error     VARCHAR(500)
+);
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events (id)
+    WHERE published_at IS NULL AND failed_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_outbox_events_published ON outbox_events (published_at)
+    WHERE published_at IS NOT NULL;
+
+-- Last outbox sequence number per aggregate; the row lock taken by the upsert serializes
+-- writers of the same aggregate, so their events get ids in commit order
+CREATE TABLE IF NOT EXISTS outbox_aggregates (
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id   BIGINT      NOT NULL,
+    last_sequence  BIGINT      NOT NULL,
+    PRIMARY KEY (aggregate_type, aggregate_id)
+);
+
+-- Hibernate created audit_log.action with a CHECK listing the actions that existed then, and
+-- ddl-auto=update never widens it; the enum mapping already limits what is written
+ALTER TABLE audit_log DROP CONSTRAINT IF EXISTS audit_log_action_check;
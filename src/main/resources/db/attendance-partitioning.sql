@@ -0,0 +1,65 @@
+-- Convert attendance to monthly RANGE partitions on lesson_date.
+--
+-- Not run by the application. Run it once with psql during a maintenance window:
+--
+--   psql "$DATABASE_URL" -v ON_ERROR_STOP=1 -f attendance-partitioning.sql
+--
+-- One partition attendance_yYYYYmMM is created per month that has lessons, up to three months
+-- ahead, plus a DEFAULT partition for anything outside them. From then on the application's
+-- maintenance job (AttendanceArchiveService, app.attendance.archive.cron) creates the coming
+-- months and drops months that were moved to attendance_archive, and queries with a
+-- lesson_date range only scan the matching months. PostgreSQL requires the partition key in
+-- every unique constraint, so the primary key becomes (id, lesson_date), and the identity
+-- column is replaced by a sequence default (partitioned identity columns need PostgreSQL 17).
+--
+-- Run the application once first so attendance_archive and attendance_monthly_summary exist;
+-- lessons older than the retention window are archived by the first job run afterwards.
+
+BEGIN;
+
+DO $$
+DECLARE
+    v_month date;
+    v_last  date := CAST(date_trunc('month', now()) AS DATE) + INTERVAL '3 months';
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('attendance')) THEN
+        RAISE NOTICE 'attendance is already partitioned';
+        RETURN;
+    END IF;
+
+    ALTER TABLE attendance RENAME TO attendance_unpartitioned;
+    CREATE TABLE attendance (LIKE attendance_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+        PARTITION BY RANGE (lesson_date);
+
+    -- Not attendance_id_seq: that is the identity sequence, dropped with the old table
+    CREATE SEQUENCE IF NOT EXISTS attendance_part_id_seq;
+    PERFORM setval('attendance_part_id_seq', COALESCE((SELECT MAX(id) FROM attendance_unpartitioned), 0) + 1, false);
+    ALTER TABLE attendance ALTER COLUMN id SET DEFAULT nextval('attendance_part_id_seq');
+    ALTER SEQUENCE attendance_part_id_seq OWNED BY attendance.id;
+    ALTER TABLE attendance ADD PRIMARY KEY (id, lesson_date);
+
+    CREATE TABLE attendance_default PARTITION OF attendance DEFAULT;
+    v_month := COALESCE((SELECT CAST(date_trunc('month', MIN(lesson_date)) AS DATE) FROM attendance_unpartitioned),
+                        CAST(date_trunc('month', now()) AS DATE));
+    WHILE v_month <= v_last LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF attendance FOR VALUES FROM (%L) TO (%L)',
+                       'attendance_y' || to_char(v_month, 'YYYY') || 'm' || to_char(v_month, 'MM'),
+                       v_month, v_month + INTERVAL '1 month');
+        v_month := v_month + INTERVAL '1 month';
+    END LOOP;
+
+    INSERT INTO attendance SELECT * FROM attendance_unpartitioned;
+    DROP TABLE attendance_unpartitioned;
+END
+$$;
+
+-- Foreign keys and secondary indexes are not copied by LIKE; declared on the parent they
+-- are created on every partition, including the ones the maintenance job adds
+ALTER TABLE attendance ADD CONSTRAINT fk_attendance_student FOREIGN KEY (student_id) REFERENCES users (id);
+ALTER TABLE attendance ADD CONSTRAINT fk_attendance_group FOREIGN KEY (group_id) REFERENCES groups (id);
+ALTER TABLE attendance ADD CONSTRAINT fk_attendance_marked_by FOREIGN KEY (marked_by_id) REFERENCES users (id);
+CREATE INDEX IF NOT EXISTS idx_attendance_group_lesson ON attendance (group_id, lesson_date, student_id, status);
+CREATE INDEX IF NOT EXISTS idx_attendance_student_lesson ON attendance (student_id, lesson_date);
+CREATE INDEX IF NOT EXISTS idx_attendance_lesson_tenant ON attendance (lesson_date, tenant_id, status);
+
+COMMIT;
@@ -0,0 +1,87 @@
+-- Partition the high-volume branch tables (payments, coins) by tenant_id. attendance is
+-- partitioned by month instead, see attendance-partitioning.sql.
+--
+-- Not run by the application. Run it once with psql during a maintenance window, after the
+-- app has started at least once on this version (so every table already has tenant_id):
+--
+--   psql "$DATABASE_URL" -v ON_ERROR_STOP=1 -f tenant-partitioning.sql
+--
+-- Each table becomes LIST-partitioned on tenant_id with one partition per existing branch and
+-- a DEFAULT partition that catches branches created later; move a new branch out of the
+-- default partition with SELECT magister_add_tenant(<id>). PostgreSQL requires the partition
+-- key in every unique constraint, so the primary keys become (id, tenant_id), and identity
+-- columns are replaced by sequence defaults (partitioned identity columns need PostgreSQL 17).
+-- Queries filtered by the Hibernate tenant filter then only scan the branch's own partition.
+
+BEGIN;
+
+CREATE OR REPLACE FUNCTION magister_partition_by_tenant(p_table text) RETURNS void AS $$
+DECLARE
+    v_old  text := p_table || '_unpartitioned';
+    -- Not <table>_id_seq: that is the identity sequence, dropped with the old table
+    v_seq  text := p_table || '_part_id_seq';
+    v_tenant bigint;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(p_table)) THEN
+        RAISE NOTICE '% is already partitioned', p_table;
+        RETURN;
+    END IF;
+
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', p_table, v_old);
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS) ' ||
+                   'PARTITION BY LIST (tenant_id)', p_table, v_old);
+
+    EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I', v_seq);
+    EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(id) FROM %I), 0) + 1, false)', v_seq, v_old);
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', p_table, v_seq);
+    EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.id', v_seq, p_table);
+    EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id, tenant_id)', p_table);
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', p_table || '_default', p_table);
+    FOR v_tenant IN EXECUTE format('SELECT DISTINCT tenant_id FROM %I', v_old) LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES IN (%s)',
+                       p_table || '_t' || v_tenant, p_table, v_tenant);
+    END LOOP;
+
+    EXECUTE format('INSERT INTO %I SELECT * FROM %I', p_table, v_old);
+    EXECUTE format('DROP TABLE %I', v_old);
+END
+$$ LANGUAGE plpgsql;
+
+-- Gives a branch its own partition in every partitioned table, moving any rows it already
+-- has in the default partition. Safe to run more than once.
+CREATE OR REPLACE FUNCTION magister_add_tenant(p_tenant bigint) RETURNS void AS $$
+DECLARE
+    v_table text;
+    v_part  text;
+BEGIN
+    FOREACH v_table IN ARRAY ARRAY['payments', 'coins'] LOOP
+        v_part := v_table || '_t' || p_tenant;
+        IF to_regclass(v_part) IS NOT NULL THEN
+            CONTINUE;
+        END IF;
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_part, v_table);
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE tenant_id = %s RETURNING *) ' ||
+                       'INSERT INTO %I SELECT * FROM moved', v_table || '_default', p_tenant, v_part);
+        EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES IN (%s)', v_table, v_part, p_tenant);
+    END LOOP;
+END
+$$ LANGUAGE plpgsql;
+
+SELECT magister_partition_by_tenant('payments');
+SELECT magister_partition_by_tenant('coins');
+
+-- Foreign keys and secondary indexes are not copied by LIKE; declared on the parent they
+-- are created on every partition, including ones attached later
+ALTER TABLE payments ADD CONSTRAINT fk_payments_student FOREIGN KEY (student_id) REFERENCES users (id);
+ALTER TABLE payments ADD CONSTRAINT fk_payments_teacher FOREIGN KEY (teacher_id) REFERENCES users (id);
+ALTER TABLE payments ADD CONSTRAINT fk_payments_group FOREIGN KEY (group_id) REFERENCES groups (id);
+CREATE INDEX IF NOT EXISTS idx_payments_student ON payments (tenant_id, student_id);
+CREATE INDEX IF NOT EXISTS idx_payments_group ON payments (tenant_id, group_id);
+
+ALTER TABLE coins ADD CONSTRAINT fk_coins_student FOREIGN KEY (student_id) REFERENCES users (id);
+ALTER TABLE coins ADD CONSTRAINT fk_coins_teacher FOREIGN KEY (teacher_id) REFERENCES users (id);
+ALTER TABLE coins ADD CONSTRAINT fk_coins_group FOREIGN KEY (group_id) REFERENCES groups (id);
+CREATE INDEX IF NOT EXISTS idx_coins_student ON coins (tenant_id, student_id);
+
+COMMIT;
@@ -0,0 +1,130 @@
+package com.example.magister.security;
+
+import com.example.magister.entity.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long T0 = 1_000 * SECOND;
+
+    @Test
+    void bucketAllowsABurstOfExactlyCapacity() {
+        RateLimiter.Limit limit = new RateLimiter.Limit(5, 1.0);
+        RateLimiter.Bucket bucket = new RateLimiter.Bucket(T0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(limit, T0)).isZero();
+        }
+        assertThat(bucket.tryAcquire(limit, T0)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void bucketRefillsOneTokenPerInterval() {
+        RateLimiter.Limit limit = new RateLimiter.Limit(2, 4.0);
+        RateLimiter.Bucket bucket = new RateLimiter.Bucket(T0);
+        bucket.tryAcquire(limit, T0);
+        bucket.tryAcquire(limit, T0);
+
+        long quarter = SECOND / 4;
+        assertThat(bucket.tryAcquire(limit, T0 + quarter / 2)).isEqualTo(quarter / 2);
+        assertThat(bucket.tryAcquire(limit, T0 + quarter)).isZero();
+        assertThat(bucket.tryAcquire(limit, T0 + quarter)).isEqualTo(quarter);
+    }
+
+    @Test
+    void bucketDoesNotSaveUpMoreThanCapacity() {
+        RateLimiter.Limit limit = new RateLimiter.Limit(3, 1.0);
+        RateLimiter.Bucket bucket = new RateLimiter.Bucket(T0);
+        long later = T0 + 3_600 * SECOND;
+
+        assertThat(bucket.isFull(later)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(limit, later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(limit, later)).isPositive();
+        assertThat(bucket.isFull(later)).isFalse();
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertThat(RateLimiter.retryAfterSeconds(1)).isEqualTo(1);
+        assertThat(RateLimiter.retryAfterSeconds(SECOND - 1)).isEqualTo(1);
+        assertThat(RateLimiter.retryAfterSeconds(SECOND)).isEqualTo(1);
+        assertThat(RateLimiter.retryAfterSeconds(SECOND + 1)).isEqualTo(2);
+        assertThat(RateLimiter.retryAfterSeconds(5 * SECOND / 2)).isEqualTo(3);
+    }
+
+    @Test
+    void fullMapNeverEvictsBucketsInUse() {
+        // One token per ~17 minutes: no bucket is full again during the test
+        RateLimiter rateLimiter = rateLimiter(3, 0.001, 0.001);
+        for (long userId = 1; userId <= 3; userId++) {
+            assertThat(rateLimiter.tryAcquire(userId, UserRole.TEACHER, "GET /api/teacher/dashboard")).isZero();
+        }
+
+        // New users share the role's overflow bucket instead of displacing someone
+        assertThat(rateLimiter.tryAcquire(4L, UserRole.TEACHER, "GET /api/teacher/dashboard")).isZero();
+        assertThat(rateLimiter.tryAcquire(5L, UserRole.TEACHER, "GET /api/teacher/dashboard")).isPositive();
+
+        assertThat(rateLimiter.getStats().getBuckets()).isEqualTo(3);
+        assertThat(rateLimiter.getStats().getEvicted()).isZero();
+        assertThat(rateLimiter.tryAcquire(1L, UserRole.TEACHER, "GET /api/teacher/dashboard")).isPositive();
+    }
+
+    @Test
+    void floodOfUniqueRoutesStaysWithinTheUsersBuckets() {
+        RateLimiter rateLimiter = rateLimiter(1_000, 0.001, 0.001, 8);
+        assertThat(rateLimiter.tryAcquire(2L, UserRole.TEACHER, "GET /api/teacher/dashboard")).isZero();
+
+        int allowed = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (rateLimiter.tryAcquire(1L, UserRole.TEACHER, "GET /api/teacher/made-up-" + i) == 0) {
+                allowed++;
+            }
+        }
+
+        // Eight route buckets plus the shared "other" one, one token each
+        assertThat(allowed).isEqualTo(9);
+        assertThat(rateLimiter.getStats().getBuckets()).isEqualTo(10);
+        assertThat(rateLimiter.getStats().getEvicted()).isZero();
+        // The other user's spent token is still remembered
+        assertThat(rateLimiter.tryAcquire(2L, UserRole.TEACHER, "GET /api/teacher/dashboard")).isPositive();
+    }
+
+    @Test
+    void trimDropsFullBucketsFirst() throws InterruptedException {
+        // Student buckets refill within a microsecond, teacher buckets stay in use
+        RateLimiter rateLimiter = rateLimiter(3, 0.001, 1_000_000);
+        rateLimiter.tryAcquire(1L, UserRole.TEACHER, "GET /api/teacher/dashboard");
+        rateLimiter.tryAcquire(2L, UserRole.STUDENT, "GET /api/student/dashboard");
+        rateLimiter.tryAcquire(3L, UserRole.STUDENT, "GET /api/student/dashboard");
+        Thread.sleep(2);
+
+        rateLimiter.tryAcquire(4L, UserRole.TEACHER, "GET /api/teacher/dashboard");
+
+        assertThat(rateLimiter.getStats().getBuckets()).isEqualTo(2);
+        assertThat(rateLimiter.getStats().getEvicted()).isEqualTo(2);
+        // The surviving teacher bucket still remembers its spent token
+        assertThat(rateLimiter.tryAcquire(1L, UserRole.TEACHER, "GET /api/teacher/dashboard")).isPositive();
+    }
+
+    private static RateLimiter rateLimiter(int maxBuckets, double teacherRefill, double studentRefill) {
+        return rateLimiter(maxBuckets, teacherRefill, studentRefill, 64);
+    }
+
+    private static RateLimiter rateLimiter(int maxBuckets, double teacherRefill, double studentRefill,
+                                           int maxRoutesPerUser) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.rate-limit.teacher.capacity", "1")
+                .withProperty("app.rate-limit.teacher.refill-per-second", Double.toString(teacherRefill))
+                .withProperty("app.rate-limit.student.capacity", "1")
+                .withProperty("app.rate-limit.student.refill-per-second", Double.toString(studentRefill));
+        return new RateLimiter(environment, true, maxBuckets, maxRoutesPerUser);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.magister.service;
+
+import com.example.magister.entity.Attendance;
+import com.example.magister.entity.AttendanceStats;
+import com.example.magister.entity.AttendanceStatus;
+import com.example.magister.entity.Group;
+import com.example.magister.entity.User;
+import com.example.magister.repository.AttendanceMonthlySummaryRepository;
+import com.example.magister.repository.AttendanceRepository;
+import com.example.magister.repository.AttendanceStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Applies random sequences of marks (in and out of lesson order) and status corrections
+ * through the incremental onMarked/onUpdated paths and checks, after every step, that the
+ * stats equal a full replay of the same history.
+ */
+class AttendanceStatsServiceTest {
+
+    private static final long STUDENT_ID = 1L;
+    private static final long GROUP_ID = 10L;
+    private static final int WINDOW_LESSONS = 12;
+    private static final double DECAY = 0.2;
+    private static final LocalDateTime FIRST_LESSON = LocalDateTime.of(2026, 1, 5, 9, 0);
+    private static final AttendanceStatus[] STATUSES = AttendanceStatus.values();
+
+    private final AttendanceStatsRepository statsRepository = mock(AttendanceStatsRepository.class);
+    private final AttendanceRepository attendanceRepository = mock(AttendanceRepository.class);
+    private final AttendanceMonthlySummaryRepository summaryRepository = mock(AttendanceMonthlySummaryRepository.class);
+    private final AttendanceStatsService service = new AttendanceStatsService(
+            statsRepository, attendanceRepository, summaryRepository, WINDOW_LESSONS, DECAY);
+
+    private final User student = User.builder().id(STUDENT_ID).build();
+    private final Group group = Group.builder().id(GROUP_ID).build();
+    private final List<Attendance> history = new ArrayList<>();
+    private AttendanceStats stats;
+
+    @BeforeEach
+    void setUp() {
+        when(attendanceRepository.findHistory(STUDENT_ID, GROUP_ID)).thenAnswer(invocation -> history.stream()
+                .sorted(Comparator.comparing(Attendance::getLessonDate).thenComparing(Attendance::getId))
+                .toList());
+        when(summaryRepository.sumByStudentIdAndGroupId(STUDENT_ID, GROUP_ID))
+                .thenReturn(List.<Object[]>of(new Object[]{0L, 0L}));
+    }
+
+    @Test
+    void incrementalUpdatesMatchReplay() {
+        for (long seed = 1; seed <= 200; seed++) {
+            runSequence(seed, 50);
+        }
+    }
+
+    @Test
+    void correctionOfTheNewestLessonMatchesReplay() {
+        reset();
+        Attendance last = null;
+        for (int i = 0; i < 5; i++) {
+            last = mark(history.size() + 1L, FIRST_LESSON.plusDays(i), AttendanceStatus.ABSENT);
+        }
+        update(last, AttendanceStatus.PRESENT);
+        assertMatchesReplay("present after four absences");
+        update(last, AttendanceStatus.ABSENT);
+        assertMatchesReplay("absent again");
+        assertThat(stats.getAbsenceStreak()).isEqualTo(5);
+    }
+
+    // At most 50 lessons per sequence, so the 64-lesson mask never drops a lesson
+    private void runSequence(long seed, int steps) {
+        reset();
+        Random random = new Random(seed);
+        for (int step = 0; step < steps; step++) {
+            if (history.isEmpty() || random.nextInt(10) < 6) {
+                // Some lessons land before the newest one, and some on the same day as another
+                LocalDateTime lessonDate = FIRST_LESSON.plusDays(random.nextInt(60));
+                mark(history.size() + 1L, lessonDate, STATUSES[random.nextInt(STATUSES.length)]);
+            } else {
+                Attendance attendance = history.get(random.nextInt(history.size()));
+                update(attendance, STATUSES[random.nextInt(STATUSES.length)]);
+            }
+            assertMatchesReplay("seed " + seed + " step " + step);
+        }
+    }
+
+    private void reset() {
+        history.clear();
+        stats = emptyStats();
+        when(statsRepository.findForUpdate(STUDENT_ID, GROUP_ID)).thenReturn(Optional.of(stats));
+    }
+
+    private Attendance mark(Long id, LocalDateTime lessonDate, AttendanceStatus status) {
+        Attendance attendance = Attendance.builder()
+                .id(id)
+                .student(student)
+                .group(group)
+                .lessonDate(lessonDate)
+                .status(status)
+                .build();
+        history.add(attendance);
+        service.onMarked(attendance);
+        return attendance;
+    }
+
+    private void update(Attendance attendance, AttendanceStatus status) {
+        AttendanceStatus previousStatus = attendance.getStatus();
+        attendance.setStatus(status);
+        service.onUpdated(attendance, previousStatus);
+    }
+
+    private void assertMatchesReplay(String description) {
+        AttendanceStats expected = emptyStats();
+        service.replay(expected);
+
+        assertThat(stats.getTotalLessons()).as(description).isEqualTo(expected.getTotalLessons());
+        assertThat(stats.getAbsentCount()).as(description).isEqualTo(expected.getAbsentCount());
+        assertThat(stats.getAbsenceStreak()).as(description).isEqualTo(expected.getAbsenceStreak());
+        assertThat(stats.getRecentMask()).as(description).isEqualTo(expected.getRecentMask());
+        assertThat(stats.getWindowLessons()).as(description).isEqualTo(expected.getWindowLessons());
+        assertThat(stats.getWindowAbsences()).as(description).isEqualTo(expected.getWindowAbsences());
+        assertThat(stats.getDecayedRate()).as(description).isCloseTo(expected.getDecayedRate(), within(1e-9));
+        assertThat(stats.getLastLessonDate()).as(description).isEqualTo(expected.getLastLessonDate());
+        assertThat(stats.getLastAttendanceId()).as(description).isEqualTo(expected.getLastAttendanceId());
+    }
+
+    // As inserted by AttendanceStatsRepository.ensureExists
+    private AttendanceStats emptyStats() {
+        return AttendanceStats.builder()
+                .student(student)
+                .group(group)
+                .totalLessons(0)
+                .absentCount(0)
+                .absenceStreak(0)
+                .recentMask(0L)
+                .windowLessons(0)
+                .windowAbsences(0)
+                .decayedRate(1.0)
+                .build();
+    }
+}